@@ -92,6 +92,22 @@ public @interface CacheNamespace {
    */
   boolean blocking() default false;
 
+  /**
+   * Returns the time in milliseconds after which each entry expires.
+   *
+   * @return the time to live, 0 for no expiry
+   * @since 3.5.11
+   */
+  long timeToLive() default 0;
+
+  /**
+   * Returns how long in milliseconds before its expiry an entry that is read is reloaded in the background.
+   *
+   * @return the refresh ahead window, 0 to never refresh
+   * @since 3.5.11
+   */
+  long refreshAhead() default 0;
+
   /**
    * Returns property values for a implementation object.
    *
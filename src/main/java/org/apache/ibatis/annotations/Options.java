@@ -138,6 +138,18 @@ public @interface Options {
    */
   String resultSets() default "";
 
+  /**
+   * Returns the tables read by a select or modified by the other statements, used by the table level invalidation of
+   * the 2nd level cache instead of scanning the SQL.
+   * <p>
+   * If you specify multiple tables, please separate using comma(',').
+   * </p>
+   *
+   * @return table names that separate with comma(',')
+   * @since 3.5.11
+   */
+  String tables() default "";
+
   /**
    * @return A database id that correspond this options
    * @since 3.5.5
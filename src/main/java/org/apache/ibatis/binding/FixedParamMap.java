@@ -0,0 +1,264 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+
+/**
+ * The arguments of a mapper method call, viewed as a map from parameter names to argument values.
+ * <p>
+ * The keys and the argument each one refers to are resolved once per method in a {@link Layout}, so a call only
+ * wraps its argument array instead of copying it into a hash table. A parameter name and its generic name (param1,
+ * param2, ...) share the same argument. Like {@link ParamMap}, getting a key that is not a parameter name throws a
+ * {@link BindingException}. Replacing the value of a parameter name works in place, while adding or removing keys
+ * copies the map into a private {@link ParamMap}. A serialized map is read back as a {@link ParamMap}.
+ *
+ * @since 3.5.11
+ */
+public final class FixedParamMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Layout layout;
+  private Object[] args;
+  private boolean argsCopied;
+  private ParamMap<Object> detached;
+
+  public FixedParamMap(Layout layout, Object[] args) {
+    this.layout = layout;
+    this.args = args;
+  }
+
+  @Override
+  public int size() {
+    return detached != null ? detached.size() : layout.keys.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return detached != null ? detached.containsKey(key) : layout.indexOf(key) >= 0;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (detached != null) {
+      return detached.get(key);
+    }
+    int index = layout.indexOf(key);
+    if (index < 0) {
+      throw new BindingException("Parameter '" + key + "' not found. Available parameters are " + keySet());
+    }
+    return args[layout.argIndexes[index]];
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    if (detached == null) {
+      int index = layout.indexOf(key);
+      if (index >= 0) {
+        return setValue(index, value);
+      }
+      detach();
+    }
+    return detached.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (detached == null) {
+      if (layout.indexOf(key) < 0) {
+        return null;
+      }
+      detach();
+    }
+    return detached.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    if (detached == null) {
+      detached = new ParamMap<>();
+    } else {
+      detached.clear();
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return detached != null ? detached.entrySet() : new EntrySet();
+  }
+
+  private Object setValue(int index, Object value) {
+    if (!argsCopied) {
+      // the argument array belongs to the caller
+      args = args.clone();
+      argsCopied = true;
+    }
+    int argIndex = layout.argIndexes[index];
+    Object old = args[argIndex];
+    args[argIndex] = value;
+    return old;
+  }
+
+  private void detach() {
+    detached = toParamMap();
+  }
+
+  /**
+   * Copies this map into a {@link ParamMap}, for code that expects the arguments of a mapper method in one.
+   *
+   * @return a new param map with the same entries
+   */
+  public ParamMap<Object> toParamMap() {
+    ParamMap<Object> map = new ParamMap<>();
+    if (detached != null) {
+      map.putAll(detached);
+    } else {
+      for (int i = 0; i < layout.keys.length; i++) {
+        map.put(layout.keys[i], args[layout.argIndexes[i]]);
+      }
+    }
+    return map;
+  }
+
+  private Object writeReplace() {
+    // the argument array may hold row bounds or result handlers that are not part of the map
+    return toParamMap();
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+    @Override
+    public int size() {
+      return FixedParamMap.this.size();
+    }
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new Iterator<Entry<String, Object>>() {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+          if (detached != null) {
+            throw new ConcurrentModificationException();
+          }
+          return next < layout.keys.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return new ParamEntry(next++);
+        }
+      };
+    }
+  }
+
+  private class ParamEntry implements Entry<String, Object> {
+
+    private final int index;
+
+    ParamEntry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return layout.keys[index];
+    }
+
+    @Override
+    public Object getValue() {
+      return args[layout.argIndexes[index]];
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      return FixedParamMap.this.setValue(index, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      Object value = getValue();
+      return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * The parameter names of a method, each mapped to the index of the argument it refers to.
+   */
+  public static final class Layout implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;
+    private final int[] argIndexes;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * Creates a layout.
+     *
+     * @param argIndexes
+     *          the index of the argument of each parameter name, in iteration order
+     */
+    public Layout(Map<String, Integer> argIndexes) {
+      this.keys = new String[argIndexes.size()];
+      this.argIndexes = new int[keys.length];
+      this.indexes = new HashMap<>();
+      int i = 0;
+      for (Map.Entry<String, Integer> entry : argIndexes.entrySet()) {
+        keys[i] = entry.getKey();
+        this.argIndexes[i] = entry.getValue();
+        indexes.put(entry.getKey(), i);
+        i++;
+      }
+    }
+
+    int indexOf(Object key) {
+      Integer index = indexes.get(key);
+      return index == null ? -1 : index;
+    }
+  }
+
+}
@@ -187,7 +187,10 @@ public class MapperAnnotationBuilder {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+      Long refreshAhead = cacheDomain.refreshAhead() == 0 ? null : cacheDomain.refreshAhead();
+      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(),
+          timeToLive, refreshAhead, props);
     }
   }
 
@@ -378,7 +381,9 @@ public class MapperAnnotationBuilder {
           statementAnnotation.getDatabaseId(),
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          statementAnnotation.isDirtySelect(),
+          options != null ? nullOrEmpty(options.tables()) : null);
     });
   }
 
@@ -672,6 +677,7 @@ public class MapperAnnotationBuilder {
     private final Annotation annotation;
     private final String databaseId;
     private final SqlCommandType sqlCommandType;
+    private boolean dirtySelect;
 
     AnnotationWrapper(Annotation annotation) {
       super();
@@ -679,6 +685,7 @@ public class MapperAnnotationBuilder {
       if (annotation instanceof Select) {
         databaseId = ((Select) annotation).databaseId();
         sqlCommandType = SqlCommandType.SELECT;
+        dirtySelect = ((Select) annotation).affectData();
       } else if (annotation instanceof Update) {
         databaseId = ((Update) annotation).databaseId();
         sqlCommandType = SqlCommandType.UPDATE;
@@ -691,6 +698,7 @@ public class MapperAnnotationBuilder {
       } else if (annotation instanceof SelectProvider) {
         databaseId = ((SelectProvider) annotation).databaseId();
         sqlCommandType = SqlCommandType.SELECT;
+        dirtySelect = ((SelectProvider) annotation).affectData();
       } else if (annotation instanceof UpdateProvider) {
         databaseId = ((UpdateProvider) annotation).databaseId();
         sqlCommandType = SqlCommandType.UPDATE;
@@ -723,5 +731,9 @@ public class MapperAnnotationBuilder {
     String getDatabaseId() {
       return databaseId;
     }
+
+    boolean isDirtySelect() {
+      return dirtySelect;
+    }
   }
 }
@@ -19,15 +19,21 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.binding.FixedParamMap;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.util.MapUtil;
 
 /**
  * @author Clinton Begin
@@ -44,6 +50,8 @@ public class ProviderSqlSource implements SqlSource {
   private final Class<?>[] providerMethodParameterTypes;
   private final ProviderContext providerContext;
   private final Integer providerContextIndex;
+  /** The SQL sources built from the SQL returned by the provider method, by SQL and parameter type. */
+  private final Map<Entry<String, Class<?>>, SqlSource> sqlSourceCache = new LinkedHashMap<>(16, 0.75f, true);
 
   /**
    * This constructor will remove at a future version.
@@ -162,9 +170,13 @@ public class ProviderSqlSource implements SqlSource {
       String sql;
       if (parameterObject instanceof Map) {
         int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
-        if (bindParameterCount == 1
-            && providerMethodParameterTypes[Integer.valueOf(0).equals(providerContextIndex) ? 1 : 0].isAssignableFrom(parameterObject.getClass())) {
+        Class<?> bindParameterType = bindParameterCount == 1
+            ? providerMethodParameterTypes[Integer.valueOf(0).equals(providerContextIndex) ? 1 : 0] : null;
+        if (bindParameterCount == 1 && bindParameterType.isAssignableFrom(parameterObject.getClass())) {
           sql = invokeProviderMethod(extractProviderMethodArguments(parameterObject));
+        } else if (bindParameterCount == 1 && parameterObject instanceof FixedParamMap
+            && bindParameterType.isAssignableFrom(ParamMap.class)) {
+          sql = invokeProviderMethod(extractProviderMethodArguments(((FixedParamMap) parameterObject).toParamMap()));
         } else {
           @SuppressWarnings("unchecked")
           Map<String, Object> params = (Map<String, Object>) parameterObject;
@@ -186,7 +198,7 @@ public class ProviderSqlSource implements SqlSource {
           + "' because SqlProvider method arguments for '" + mapperMethod + "' is an invalid combination.");
       }
       Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-      return languageDriver.createSqlSource(configuration, sql, parameterType);
+      return getSqlSource(sql, parameterType);
     } catch (BuilderException e) {
       throw e;
     } catch (Exception e) {
@@ -195,6 +207,34 @@ public class ProviderSqlSource implements SqlSource {
     }
   }
 
+  /**
+   * Gets the SQL source of a SQL returned by the provider method. Providers usually return a few distinct SQL, so the
+   * most recently used SQL sources are kept to avoid parsing the same SQL again.
+   */
+  private SqlSource getSqlSource(String sql, Class<?> parameterType) {
+    int cacheSize = configuration.getProviderSqlCacheSize();
+    if (cacheSize <= 0) {
+      return languageDriver.createSqlSource(configuration, sql, parameterType);
+    }
+    Entry<String, Class<?>> key = MapUtil.entry(sql, parameterType);
+    synchronized (sqlSourceCache) {
+      SqlSource sqlSource = sqlSourceCache.get(key);
+      if (sqlSource != null) {
+        return sqlSource;
+      }
+    }
+    SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, parameterType);
+    synchronized (sqlSourceCache) {
+      sqlSourceCache.put(key, sqlSource);
+      Iterator<SqlSource> eldest = sqlSourceCache.values().iterator();
+      while (sqlSourceCache.size() > cacheSize) {
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    return sqlSource;
+  }
+
   private Throwable extractRootCause(Exception e) {
     Throwable cause = e;
     while (cause.getCause() != null) {
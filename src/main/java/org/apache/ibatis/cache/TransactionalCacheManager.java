@@ -15,10 +15,17 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidation;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.util.MapUtil;
 
 /**
@@ -27,11 +34,42 @@ import org.apache.ibatis.util.MapUtil;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  private final CacheInvalidationBus invalidationBus;
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  /**
+   * Creates a manager that publishes the invalidations it commits to the other nodes.
+   *
+   * @param invalidationBus
+   *          the invalidation bus, null for a standalone node
+   * @since 3.5.11
+   */
+  public TransactionalCacheManager(CacheInvalidationBus invalidationBus) {
+    this.invalidationBus = invalidationBus;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
   }
 
+  /**
+   * Invalidates the entries of the cache that depend on the modified tables, or all of them if the cache does not
+   * track table dependencies.
+   *
+   * @param cache
+   *          the cache
+   * @param tables
+   *          supplies the lower case names of the modified tables, or null if they are unknown; only called when the
+   *          cache tracks table dependencies
+   * @since 3.5.11
+   */
+  public void invalidate(Cache cache, Supplier<Collection<String>> tables) {
+    getTransactionalCache(cache).invalidate(tables);
+  }
+
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
@@ -40,10 +78,43 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * Puts an entry along with the tables it was read from and how to load it again, for the caches that use them.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @param tables
+   *          supplies the lower case names of the tables the entry depends on, or null if they are unknown; only called
+   *          when the cache tracks table dependencies
+   * @param loader
+   *          supplies a loader of the entry, or null if it cannot be reloaded; only called when the cache refreshes
+   *          entries
+   * @since 3.5.11
+   */
+  public void putObject(Cache cache, CacheKey key, Object value, Supplier<Collection<String>> tables,
+      Supplier<Callable<Object>> loader) {
+    getTransactionalCache(cache).putObject(key, value, tables, loader);
+  }
+
   public void commit() {
+    List<CacheInvalidation> invalidations = invalidationBus == null ? null : new ArrayList<>();
     for (TransactionalCache txCache : transactionalCaches.values()) {
+      if (invalidations != null) {
+        if (txCache.isClearOnCommit()) {
+          invalidations.add(new CacheInvalidation(txCache.getId(), null));
+        } else if (!txCache.getTablesToInvalidateOnCommit().isEmpty()) {
+          invalidations.add(new CacheInvalidation(txCache.getId(), txCache.getTablesToInvalidateOnCommit()));
+        }
+      }
       txCache.commit();
     }
+    if (invalidations != null) {
+      invalidationBus.publish(invalidations);
+    }
   }
 
   public void rollback() {
@@ -0,0 +1,221 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estimates the heap footprint of cached results, assuming a 64-bit JVM with compressed references.
+ * <p>
+ * Beans are measured through their declared fields, which are collected once per class. Fields are read directly
+ * rather than through getters so that estimating a result never triggers lazy loading. Only a sample of the elements
+ * of large collections and arrays is measured and the result is extrapolated to the whole collection. Objects that
+ * belong to the MyBatis runtime (for instance the state of a lazy loading proxy) are not counted.
+ *
+ * @since 3.5.11
+ */
+class ObjectSizeEstimator {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int MAX_DEPTH = 16;
+  private static final String[] SKIPPED_PACKAGES = { "org.apache.ibatis.executor.", "org.apache.ibatis.mapping.",
+      "org.apache.ibatis.reflection.", "org.apache.ibatis.session.", "java.lang.reflect." };
+
+  private final int sampleSize;
+  private final ConcurrentMap<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<>();
+
+  ObjectSizeEstimator(int sampleSize) {
+    this.sampleSize = sampleSize;
+  }
+
+  /**
+   * Estimates the number of bytes retained by the object and the objects reachable from it.
+   *
+   * @param object
+   *          the object to measure, can be null
+   * @return the estimated size in bytes
+   */
+  long estimate(Object object) {
+    return estimate(object, new IdentityHashMap<>(), 0);
+  }
+
+  private long estimate(Object object, Map<Object, Object> visited, int depth) {
+    if (object == null || depth > MAX_DEPTH || visited.put(object, object) != null) {
+      return 0;
+    }
+    Class<?> type = object.getClass();
+    if (object instanceof String) {
+      return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + 2L * ((String) object).length());
+    } else if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+      return estimateNumber(object);
+    } else if (object instanceof java.util.Date || object instanceof java.time.temporal.Temporal) {
+      return 32;
+    } else if (type.isEnum() || object instanceof Class || isSkipped(type)) {
+      return 0;
+    } else if (type.isArray()) {
+      return estimateArray(object, type.getComponentType(), visited, depth);
+    } else if (object instanceof Collection) {
+      Collection<?> collection = (Collection<?>) object;
+      long shallow = align(OBJECT_HEADER + 16) + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+      if (!(object instanceof RandomAccess)) {
+        // linked or hashed collections allocate a node per element
+        shallow += 32L * collection.size();
+      }
+      return shallow + estimateElements(collection, collection.size(), visited, depth);
+    } else if (object instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      long shallow = align(OBJECT_HEADER + 36) + align(ARRAY_HEADER + (long) REFERENCE * map.size()) + 32L * map.size();
+      return shallow + estimateElements(map.keySet(), map.size(), visited, depth)
+          + estimateElements(map.values(), map.size(), visited, depth);
+    }
+    ClassLayout layout = layouts.computeIfAbsent(type, ClassLayout::new);
+    long size = layout.shallowSize;
+    for (Field field : layout.references) {
+      try {
+        size += estimate(field.get(object), visited, depth + 1);
+      } catch (IllegalAccessException e) {
+        // count the reference only
+      }
+    }
+    return size;
+  }
+
+  private long estimateArray(Object array, Class<?> componentType, Map<Object, Object> visited, int depth) {
+    int length = Array.getLength(array);
+    if (componentType.isPrimitive()) {
+      return align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+    }
+    long shallow = align(ARRAY_HEADER + (long) REFERENCE * length);
+    List<Object> elements = new ArrayList<>(Math.min(length, sampleSize));
+    for (int i = 0; i < length && elements.size() < sampleSize; i += Math.max(1, length / sampleSize)) {
+      elements.add(Array.get(array, i));
+    }
+    return shallow + extrapolate(elements, length, visited, depth);
+  }
+
+  private long estimateElements(Collection<?> collection, int size, Map<Object, Object> visited, int depth) {
+    if (size == 0) {
+      return 0;
+    }
+    List<Object> elements = new ArrayList<>(Math.min(size, sampleSize));
+    if (collection instanceof List && collection instanceof RandomAccess) {
+      List<?> list = (List<?>) collection;
+      for (int i = 0; i < size && elements.size() < sampleSize; i += Math.max(1, size / sampleSize)) {
+        elements.add(list.get(i));
+      }
+    } else {
+      Iterator<?> iterator = collection.iterator();
+      while (iterator.hasNext() && elements.size() < sampleSize) {
+        elements.add(iterator.next());
+      }
+    }
+    return extrapolate(elements, size, visited, depth);
+  }
+
+  private long extrapolate(List<Object> sample, int size, Map<Object, Object> visited, int depth) {
+    if (sample.isEmpty()) {
+      return 0;
+    }
+    long sampled = 0;
+    for (Object element : sample) {
+      sampled += estimate(element, visited, depth + 1);
+    }
+    return sampled * size / sample.size();
+  }
+
+  private static long estimateNumber(Object number) {
+    if (number instanceof BigDecimal) {
+      BigDecimal decimal = (BigDecimal) number;
+      return 40 + estimateNumber(decimal.unscaledValue());
+    } else if (number instanceof BigInteger) {
+      return align(OBJECT_HEADER + 28) + align(ARRAY_HEADER + ((BigInteger) number).bitLength() / 8 + 4);
+    } else if (number instanceof Long || number instanceof Double) {
+      return 24;
+    }
+    return 16;
+  }
+
+  private static boolean isSkipped(Class<?> type) {
+    String name = type.getName();
+    for (String prefix : SKIPPED_PACKAGES) {
+      if (name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return Thread.class.isAssignableFrom(type) || ClassLoader.class.isAssignableFrom(type);
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+  private static class ClassLayout {
+
+    private final long shallowSize;
+    private final List<Field> references = new ArrayList<>();
+
+    ClassLayout(Class<?> type) {
+      long size = OBJECT_HEADER;
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          Class<?> fieldType = field.getType();
+          if (fieldType.isPrimitive()) {
+            size += primitiveSize(fieldType);
+          } else {
+            size += REFERENCE;
+            try {
+              field.setAccessible(true);
+              references.add(field);
+            } catch (RuntimeException e) {
+              // inaccessible (e.g. module restrictions), count the reference only
+            }
+          }
+        }
+      }
+      this.shallowSize = align(size);
+    }
+  }
+
+}
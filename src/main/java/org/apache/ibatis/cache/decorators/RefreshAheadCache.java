@@ -0,0 +1,206 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Expires each entry once its time to live has elapsed since it was put, instead of clearing the whole cache at a fixed
+ * interval like {@link ScheduledCache}.
+ * <p>
+ * When an entry that came with a loader is read within the refresh ahead window before its expiry, it is reloaded in
+ * the background while the current value keeps being served. Entries that are not read in that window simply expire,
+ * so only hot entries are refreshed. A reload is discarded if the entry was removed or replaced in the meantime.
+ *
+ * @since 3.5.11
+ */
+public class RefreshAheadCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(RefreshAheadCache.class);
+
+  private static final ThreadPoolExecutor refresher = newRefresher();
+
+  private final Cache delegate;
+  private final Map<Object, Entry> entries = new HashMap<>();
+  private long timeToLive;
+  private long refreshAhead;
+
+  public RefreshAheadCache(Cache delegate) {
+    this.delegate = delegate;
+    this.timeToLive = TimeUnit.HOURS.toMillis(1);
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public synchronized int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public synchronized void putObject(Object key, Object value) {
+    putObject(key, value, null);
+  }
+
+  /**
+   * Puts an entry that can be reloaded before it expires.
+   *
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @param loader
+   *          loads a fresh value for the key, returns null if it cannot; null if the entry cannot be reloaded
+   */
+  public synchronized void putObject(Object key, Object value, Callable<Object> loader) {
+    delegate.putObject(key, value);
+    if (value == null) {
+      entries.remove(key);
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (entries.size() > Math.max(1024, 2 * delegate.getSize())) {
+      removeExpiredEntries(now);
+    }
+    entries.put(key, new Entry(now + timeToLive, loader));
+  }
+
+  @Override
+  public synchronized Object getObject(Object key) {
+    Object value = delegate.getObject(key);
+    Entry entry = entries.get(key);
+    if (value == null || entry == null) {
+      if (entry != null) {
+        entries.remove(key);
+      }
+      return value;
+    }
+    long now = System.currentTimeMillis();
+    if (now >= entry.expiresAt) {
+      entries.remove(key);
+      delegate.removeObject(key);
+      return null;
+    }
+    if (entry.loader != null && !entry.refreshing && now >= entry.expiresAt - refreshAhead) {
+      entry.refreshing = true;
+      try {
+        refresher.execute(() -> refresh(key, entry));
+      } catch (RuntimeException e) {
+        entry.refreshing = false;
+        log.warn("Could not schedule the refresh of the cache entry " + key + " in " + getId() + ". Cause: " + e);
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public synchronized Object removeObject(Object key) {
+    entries.remove(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+    delegate.clear();
+  }
+
+  private void refresh(Object key, Entry entry) {
+    Object value;
+    try {
+      value = entry.loader.call();
+    } catch (Exception e) {
+      log.warn("Could not refresh the cache entry " + key + " in " + getId() + ". Cause: " + e);
+      value = null;
+    }
+    synchronized (this) {
+      if (entries.get(key) != entry) {
+        return;
+      }
+      if (value == null) {
+        // let the entry expire, the next miss will load it again
+        return;
+      }
+      delegate.putObject(key, value);
+      entries.put(key, new Entry(System.currentTimeMillis() + timeToLive, entry.loader));
+    }
+  }
+
+  private void removeExpiredEntries(long now) {
+    Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Object, Entry> entry = it.next();
+      if (now >= entry.getValue().expiresAt) {
+        it.remove();
+        delegate.removeObject(entry.getKey());
+      }
+    }
+  }
+
+  private static ThreadPoolExecutor newRefresher() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "mybatis-cache-refresh");
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private static class Entry {
+    private final long expiresAt;
+    private final Callable<Object> loader;
+    private boolean refreshing;
+
+    Entry(long expiresAt, Callable<Object> loader) {
+      this.expiresAt = expiresAt;
+      this.loader = loader;
+    }
+  }
+
+}
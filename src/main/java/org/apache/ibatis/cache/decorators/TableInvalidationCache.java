@@ -0,0 +1,225 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Tracks the tables each cached result was read from so that a write only invalidates the results that depend on the
+ * tables it modified instead of clearing the whole cache.
+ * <p>
+ * Results put without known tables depend on every table. As the delegate may evict entries on its own, the
+ * dependency index is trimmed by removing its oldest entries from the delegate once it holds more than twice the
+ * entries of the delegate. This decorator relies on {@link Cache#removeObject(Object)} actually removing the entry, so
+ * it cannot be stacked on a {@link BlockingCache}.
+ *
+ * @since 3.5.11
+ */
+public class TableInvalidationCache implements Cache {
+
+  private static final int MIN_INDEX_SIZE = 1024;
+
+  private final Cache delegate;
+  private final Map<Object, Set<String>> tablesByKey = new LinkedHashMap<>();
+  private final Map<String, Set<Object>> keysByTable = new HashMap<>();
+  private final Set<Object> keysOnUnknownTables = new HashSet<>();
+
+  public TableInvalidationCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public synchronized int getSize() {
+    return delegate.getSize();
+  }
+
+  /**
+   * Returns whether the entries are refreshed ahead of their expiry, in which case they should be put with a loader.
+   *
+   * @return {@code true} if the delegate is a {@link RefreshAheadCache}
+   */
+  public boolean isRefreshAhead() {
+    return delegate instanceof RefreshAheadCache;
+  }
+
+  @Override
+  public synchronized void putObject(Object key, Object value) {
+    putObject(key, value, null, null);
+  }
+
+  /**
+   * Puts a result recording the tables it was read from.
+   *
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @param tables
+   *          the lower case names of the tables the result depends on, null if they are unknown
+   * @param loader
+   *          passed on to a {@link RefreshAheadCache} delegate, ignored otherwise
+   */
+  public synchronized void putObject(Object key, Object value, Collection<String> tables, Callable<Object> loader) {
+    unindex(key);
+    if (delegate instanceof RefreshAheadCache) {
+      ((RefreshAheadCache) delegate).putObject(key, value, loader);
+    } else {
+      delegate.putObject(key, value);
+    }
+    if (value != null) {
+      index(key, tables);
+      trimIndex();
+    }
+  }
+
+  @Override
+  public synchronized Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public synchronized Object removeObject(Object key) {
+    unindex(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    tablesByKey.clear();
+    keysByTable.clear();
+    keysOnUnknownTables.clear();
+    delegate.clear();
+  }
+
+  /**
+   * Returns whether the result cached for the key may have been read from any of the tables.
+   *
+   * @param key
+   *          the key
+   * @param tables
+   *          the lower case table names
+   * @return false only if the result is known not to depend on the tables
+   */
+  public synchronized boolean dependsOn(Object key, Collection<String> tables) {
+    if (tables == null) {
+      return true;
+    }
+    Set<String> keyTables = tablesByKey.get(key);
+    if (keyTables == null) {
+      return true;
+    }
+    for (String table : tables) {
+      if (keyTables.contains(table)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes the results that depend on any of the tables.
+   *
+   * @param tables
+   *          the lower case names of the modified tables, null to clear the cache
+   */
+  public synchronized void invalidate(Collection<String> tables) {
+    if (tables == null) {
+      clear();
+      return;
+    }
+    Set<Object> keys = new HashSet<>(keysOnUnknownTables);
+    for (String table : tables) {
+      Set<Object> tableKeys = keysByTable.get(table);
+      if (tableKeys != null) {
+        keys.addAll(tableKeys);
+      }
+    }
+    for (Object key : keys) {
+      removeObject(key);
+    }
+  }
+
+  private void index(Object key, Collection<String> tables) {
+    if (tables == null) {
+      tablesByKey.put(key, null);
+      keysOnUnknownTables.add(key);
+      return;
+    }
+    Set<String> keyTables = new HashSet<>(tables);
+    tablesByKey.put(key, keyTables);
+    for (String table : keyTables) {
+      keysByTable.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+    }
+  }
+
+  private void unindex(Object key) {
+    if (!tablesByKey.containsKey(key)) {
+      return;
+    }
+    Set<String> keyTables = tablesByKey.remove(key);
+    if (keyTables == null) {
+      keysOnUnknownTables.remove(key);
+      return;
+    }
+    for (String table : keyTables) {
+      Set<Object> tableKeys = keysByTable.get(table);
+      if (tableKeys != null) {
+        tableKeys.remove(key);
+        if (tableKeys.isEmpty()) {
+          keysByTable.remove(table);
+        }
+      }
+    }
+  }
+
+  private void trimIndex() {
+    int maxIndexSize = Math.max(MIN_INDEX_SIZE, 2 * delegate.getSize());
+    if (tablesByKey.size() <= maxIndexSize) {
+      return;
+    }
+    int excess = tablesByKey.size() - maxIndexSize / 2;
+    for (Object key : tablesByKey.keySet().toArray()) {
+      if (excess-- <= 0) {
+        break;
+      }
+      removeObject(key);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+}
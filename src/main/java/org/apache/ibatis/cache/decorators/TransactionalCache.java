@@ -15,10 +15,14 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.logging.Log;
@@ -43,12 +47,18 @@ public class TransactionalCache implements Cache {
   private boolean clearOnCommit;
   private final Map<Object, Object> entriesToAddOnCommit;
   private final Set<Object> entriesMissedInCache;
+  private final Map<Object, Collection<String>> tablesOfEntriesToAdd;
+  private final Set<String> tablesToInvalidateOnCommit;
+  private final Map<Object, Callable<Object>> loadersOfEntriesToAdd;
 
   public TransactionalCache(Cache delegate) {
     this.delegate = delegate;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
     this.entriesMissedInCache = new HashSet<>();
+    this.tablesOfEntriesToAdd = new HashMap<>();
+    this.tablesToInvalidateOnCommit = new HashSet<>();
+    this.loadersOfEntriesToAdd = new HashMap<>();
   }
 
   @Override
@@ -69,7 +79,7 @@ public class TransactionalCache implements Cache {
       entriesMissedInCache.add(key);
     }
     // issue #146
-    if (clearOnCommit) {
+    if (clearOnCommit || isInvalidated(key)) {
       return null;
     } else {
       return object;
@@ -79,6 +89,35 @@ public class TransactionalCache implements Cache {
   @Override
   public void putObject(Object key, Object object) {
     entriesToAddOnCommit.put(key, object);
+    tablesOfEntriesToAdd.put(key, null);
+    loadersOfEntriesToAdd.put(key, null);
+  }
+
+  /**
+   * Puts an entry along with the tables it was read from and how to load it again. The tables are only asked for when
+   * the delegate is a {@link TableInvalidationCache} and the loader when the entry ends up in a
+   * {@link RefreshAheadCache}.
+   *
+   * @param key
+   *          the key
+   * @param object
+   *          the value
+   * @param tables
+   *          supplies the lower case names of the tables the entry depends on, or null if they are unknown
+   * @param loader
+   *          supplies a loader of the entry, or null if it cannot be reloaded
+   * @since 3.5.11
+   */
+  public void putObject(Object key, Object object, Supplier<Collection<String>> tables,
+      Supplier<Callable<Object>> loader) {
+    entriesToAddOnCommit.put(key, object);
+    tablesOfEntriesToAdd.put(key, delegate instanceof TableInvalidationCache ? tables.get() : null);
+    loadersOfEntriesToAdd.put(key, isRefreshAhead() ? loader.get() : null);
+  }
+
+  private boolean isRefreshAhead() {
+    return delegate instanceof RefreshAheadCache
+        || delegate instanceof TableInvalidationCache && ((TableInvalidationCache) delegate).isRefreshAhead();
   }
 
   @Override
@@ -90,11 +129,61 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    tablesOfEntriesToAdd.clear();
+    loadersOfEntriesToAdd.clear();
+  }
+
+  /**
+   * Invalidates the entries that depend on the modified tables. Unless the delegate is a
+   * {@link TableInvalidationCache} and the tables are known, this clears the cache.
+   *
+   * @param tables
+   *          supplies the lower case names of the modified tables, or null if they are unknown
+   * @since 3.5.11
+   */
+  public void invalidate(Supplier<Collection<String>> tables) {
+    Collection<String> modifiedTables = delegate instanceof TableInvalidationCache ? tables.get() : null;
+    if (modifiedTables == null) {
+      clear();
+      return;
+    }
+    tablesToInvalidateOnCommit.addAll(modifiedTables);
+    entriesToAddOnCommit.keySet().removeIf(key -> {
+      Collection<String> entryTables = tablesOfEntriesToAdd.get(key);
+      boolean stale = entryTables == null || entryTables.stream().anyMatch(modifiedTables::contains);
+      if (stale) {
+        tablesOfEntriesToAdd.remove(key);
+        loadersOfEntriesToAdd.remove(key);
+      }
+      return stale;
+    });
+  }
+
+  /**
+   * Returns whether the cache will be cleared on commit.
+   *
+   * @return {@code true} if the cache will be cleared
+   * @since 3.5.11
+   */
+  public boolean isClearOnCommit() {
+    return clearOnCommit;
+  }
+
+  /**
+   * Returns the tables whose dependent entries will be invalidated on commit.
+   *
+   * @return the lower case table names, empty if none
+   * @since 3.5.11
+   */
+  public Set<String> getTablesToInvalidateOnCommit() {
+    return Collections.unmodifiableSet(tablesToInvalidateOnCommit);
   }
 
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
+    } else if (!tablesToInvalidateOnCommit.isEmpty()) {
+      ((TableInvalidationCache) delegate).invalidate(tablesToInvalidateOnCommit);
     }
     flushPendingEntries();
     reset();
@@ -109,11 +198,27 @@ public class TransactionalCache implements Cache {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
     entriesMissedInCache.clear();
+    tablesOfEntriesToAdd.clear();
+    tablesToInvalidateOnCommit.clear();
+    loadersOfEntriesToAdd.clear();
+  }
+
+  private boolean isInvalidated(Object key) {
+    return !tablesToInvalidateOnCommit.isEmpty()
+        && ((TableInvalidationCache) delegate).dependsOn(key, tablesToInvalidateOnCommit);
   }
 
   private void flushPendingEntries() {
     for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+      if (delegate instanceof TableInvalidationCache) {
+        ((TableInvalidationCache) delegate).putObject(entry.getKey(), entry.getValue(),
+            tablesOfEntriesToAdd.get(entry.getKey()), loadersOfEntriesToAdd.get(entry.getKey()));
+      } else if (delegate instanceof RefreshAheadCache) {
+        ((RefreshAheadCache) delegate).putObject(entry.getKey(), entry.getValue(),
+            loadersOfEntriesToAdd.get(entry.getKey()));
+      } else {
+        delegate.putObject(entry.getKey(), entry.getValue());
+      }
     }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Weighted Lru (least recently used) cache decorator.
+ * <p>
+ * Bounds the cache by an estimated number of bytes instead of a number of entries, so that a list of a few rows and a
+ * list of thousands of rows are not counted the same. The weight of each entry is estimated when it is put, by
+ * measuring a sample of its rows and extrapolating to the size of the result list. Least recently used entries are
+ * evicted until the total weight fits the budget again; an entry that is larger than the whole budget is not cached.
+ *
+ * @since 3.5.11
+ */
+public class WeightedCache implements Cache {
+
+  private final Cache delegate;
+  private final Map<Object, Long> weights = new LinkedHashMap<>(16, .75F, true);
+  private ObjectSizeEstimator estimator = new ObjectSizeEstimator(16);
+  private long maxBytes = 64L * 1024 * 1024;
+  private long totalBytes;
+
+  public WeightedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Sets the estimated number of bytes the cached entries may use. The default is 64 MiB.
+   *
+   * @param maxBytes
+   *          the byte budget
+   */
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    evict();
+  }
+
+  /**
+   * Sets the number of rows of a result list (or elements of any collection) that are measured to estimate its
+   * weight. The default is 16.
+   *
+   * @param sampleSize
+   *          the sample size
+   */
+  public void setSampleSize(int sampleSize) {
+    this.estimator = new ObjectSizeEstimator(sampleSize);
+  }
+
+  /**
+   * Returns the estimated number of bytes used by the cached entries.
+   *
+   * @return the total weight
+   */
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    long weight = estimator.estimate(key) + estimator.estimate(value);
+    forget(key);
+    if (weight > maxBytes) {
+      delegate.removeObject(key);
+      return;
+    }
+    delegate.putObject(key, value);
+    weights.put(key, weight);
+    totalBytes += weight;
+    evict();
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    weights.get(key); // touch
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    forget(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    weights.clear();
+    totalBytes = 0;
+  }
+
+  private void forget(Object key) {
+    Long weight = weights.remove(key);
+    if (weight != null) {
+      totalBytes -= weight;
+    }
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+    while (totalBytes > maxBytes && eldest.hasNext()) {
+      Map.Entry<Object, Long> entry = eldest.next();
+      eldest.remove();
+      totalBytes -= entry.getValue();
+      delegate.removeObject(entry.getKey());
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An invalidation of a second level cache made by a committed transaction: either the whole cache is cleared or only
+ * the entries depending on some tables are removed.
+ *
+ * @since 3.5.11
+ */
+public final class CacheInvalidation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String cacheId;
+  private final List<String> tables;
+
+  /**
+   * Creates an invalidation.
+   *
+   * @param cacheId
+   *          the cache id, i.e. the namespace that owns the cache
+   * @param tables
+   *          the lower case names of the modified tables, null if the whole cache is cleared
+   */
+  public CacheInvalidation(String cacheId, Collection<String> tables) {
+    this.cacheId = cacheId;
+    this.tables = tables == null ? null : Collections.unmodifiableList(new ArrayList<>(tables));
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  /**
+   * Gets the tables whose dependent entries are removed.
+   *
+   * @return the table names or null if the whole cache is cleared
+   */
+  public List<String> getTables() {
+    return tables;
+  }
+
+  @Override
+  public String toString() {
+    return cacheId + (tables == null ? "" : tables);
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.TableInvalidationCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Keeps the second level caches of several nodes consistent. The invalidations committed on this node are published
+ * through the transport, one numbered message per transaction, and the ones received from the other nodes are applied
+ * to the local caches. When a message of a node is missing, all the local caches are cleared since what it
+ * invalidated is unknown.
+ *
+ * @since 3.5.11
+ */
+public class CacheInvalidationBus {
+
+  private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+
+  private final CacheInvalidationTransport transport;
+  private final String nodeId;
+  private final Object publishLock = new Object();
+  private long sequence;
+  private final Queue<CacheInvalidationMessage> pendingMessages = new ArrayDeque<>();
+  private boolean publishing;
+  private final Map<String, Long> lastSequences = new HashMap<>();
+  private Configuration configuration;
+
+  public CacheInvalidationBus(CacheInvalidationTransport transport) {
+    this(transport, UUID.randomUUID().toString());
+  }
+
+  public CacheInvalidationBus(CacheInvalidationTransport transport, String nodeId) {
+    this.transport = transport;
+    this.nodeId = nodeId;
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Starts receiving the invalidations of the other nodes and applying them to the caches of the configuration. This
+   * is called by {@link Configuration#setCacheInvalidationBus(CacheInvalidationBus)}.
+   *
+   * @param configuration
+   *          the configuration whose caches are kept consistent
+   */
+  public synchronized void attach(Configuration configuration) {
+    if (this.configuration != null) {
+      throw new IllegalStateException("The cache invalidation bus " + nodeId + " is already attached to a configuration.");
+    }
+    this.configuration = configuration;
+    transport.subscribe(this::receive);
+  }
+
+  /**
+   * Publishes the invalidations committed by a transaction. Only the numbering is done under a lock: the messages are
+   * queued in sequence order and sent by whichever thread is not waiting for an earlier one to be sent, so a slow
+   * transport does not hold up the other committing threads.
+   *
+   * @param invalidations
+   *          the invalidations
+   */
+  public void publish(List<CacheInvalidation> invalidations) {
+    if (invalidations.isEmpty()) {
+      return;
+    }
+    // numbered and queued under the same lock, or the other nodes could receive them out of order and see a gap
+    synchronized (publishLock) {
+      pendingMessages.add(new CacheInvalidationMessage(nodeId, ++sequence, invalidations));
+      if (publishing) {
+        return;
+      }
+      publishing = true;
+    }
+    while (true) {
+      CacheInvalidationMessage message;
+      synchronized (publishLock) {
+        message = pendingMessages.poll();
+        if (message == null) {
+          publishing = false;
+          return;
+        }
+      }
+      try {
+        transport.publish(message);
+      } catch (RuntimeException e) {
+        // the other nodes will see the gap in the sequence numbers
+        log.warn("Could not publish " + message + ". Cause: " + e);
+      }
+    }
+  }
+
+  /**
+   * Applies the invalidations received from another node.
+   *
+   * @param message
+   *          the message
+   */
+  protected synchronized void receive(CacheInvalidationMessage message) {
+    if (nodeId.equals(message.getNodeId()) || configuration == null) {
+      return;
+    }
+    Long last = lastSequences.get(message.getNodeId());
+    if (last != null && message.getSequence() <= last) {
+      return;
+    }
+    lastSequences.put(message.getNodeId(), message.getSequence());
+    if (last != null && message.getSequence() > last + 1) {
+      log.warn("Missed cache invalidations " + (last + 1) + " to " + (message.getSequence() - 1) + " from node "
+          + message.getNodeId() + ", clearing all caches.");
+      for (Cache cache : configuration.getCaches()) {
+        cache.clear();
+      }
+      return;
+    }
+    for (CacheInvalidation invalidation : message.getInvalidations()) {
+      if (!configuration.hasCache(invalidation.getCacheId())) {
+        continue;
+      }
+      Cache cache = configuration.getCache(invalidation.getCacheId());
+      if (invalidation.getTables() != null && cache instanceof TableInvalidationCache) {
+        ((TableInvalidationCache) cache).invalidate(invalidation.getTables());
+      } else {
+        cache.clear();
+      }
+    }
+  }
+
+  /**
+   * Closes the transport.
+   */
+  public void close() {
+    transport.close();
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The invalidations committed by a transaction on a node, numbered so that receivers can detect lost messages.
+ *
+ * @since 3.5.11
+ */
+public final class CacheInvalidationMessage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String nodeId;
+  private final long sequence;
+  private final List<CacheInvalidation> invalidations;
+
+  public CacheInvalidationMessage(String nodeId, long sequence, List<CacheInvalidation> invalidations) {
+    this.nodeId = nodeId;
+    this.sequence = sequence;
+    this.invalidations = Collections.unmodifiableList(new ArrayList<>(invalidations));
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Gets the sequence number of the message. The messages of a node are numbered from 1 without gaps.
+   *
+   * @return the sequence number
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  public List<CacheInvalidation> getInvalidations() {
+    return invalidations;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheInvalidationMessage[" + nodeId + "#" + sequence + " " + invalidations + "]";
+  }
+
+}
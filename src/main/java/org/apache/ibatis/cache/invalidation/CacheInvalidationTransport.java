@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation messages between the nodes of a cluster, e.g. over a message broker or a multicast channel.
+ * <p>
+ * A transport delivers each published message to the listeners of every node, possibly including the publishing one.
+ * It does not need to guarantee delivery: a receiver that detects a gap in the sequence numbers of a node clears all
+ * its caches.
+ *
+ * @since 3.5.11
+ */
+public interface CacheInvalidationTransport {
+
+  /**
+   * Sends a message to the other nodes.
+   *
+   * @param message
+   *          the message
+   */
+  void publish(CacheInvalidationMessage message);
+
+  /**
+   * Registers the listener that receives the messages published by the nodes.
+   *
+   * @param listener
+   *          the listener
+   */
+  void subscribe(Consumer<CacheInvalidationMessage> listener);
+
+  /**
+   * Releases the resources of the transport.
+   */
+  default void close() {
+    // NOP
+  }
+
+}
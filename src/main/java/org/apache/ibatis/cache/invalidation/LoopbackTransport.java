@@ -0,0 +1,49 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages synchronously to every listener in the same JVM. Sharing an instance between several
+ * configurations makes them behave like the nodes of a cluster, which is handy for tests.
+ *
+ * @since 3.5.11
+ */
+public class LoopbackTransport implements CacheInvalidationTransport {
+
+  private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidationMessage message) {
+    for (Consumer<CacheInvalidationMessage> listener : listeners) {
+      listener.accept(message);
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void close() {
+    listeners.clear();
+  }
+
+}
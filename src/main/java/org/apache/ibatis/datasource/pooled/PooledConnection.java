@@ -19,6 +19,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
@@ -29,6 +30,8 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
+  private static final String PREPARE_CALL = "prepareCall";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
@@ -38,8 +41,10 @@ class PooledConnection implements InvocationHandler {
   private long checkoutTimestamp;
   private long createdTimestamp;
   private long lastUsedTimestamp;
+  private long lastValidatedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private PreparedStatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -168,6 +173,34 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - lastUsedTimestamp;
   }
 
+  /**
+   * Getter for the time that the connection was last validated in the background.
+   *
+   * @return the timestamp or 0 if it has never been validated
+   */
+  public long getLastValidatedTimestamp() {
+    return lastValidatedTimestamp;
+  }
+
+  /**
+   * Setter for the time that the connection was last validated in the background.
+   *
+   * @param lastValidatedTimestamp
+   *          - the timestamp
+   */
+  public void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+    this.lastValidatedTimestamp = lastValidatedTimestamp;
+  }
+
+  /**
+   * Getter for the time since this connection was last used or validated.
+   *
+   * @return - the time since the last use or validation
+   */
+  public long getTimeElapsedSinceLastCheck() {
+    return System.currentTimeMillis() - Math.max(lastUsedTimestamp, lastValidatedTimestamp);
+  }
+
   /**
    * Getter for the age of the connection.
    *
@@ -205,6 +238,34 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the prepared statement cache of the real connection.
+   *
+   * @return the cache or null if statement caching is disabled
+   */
+  public PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the prepared statement cache of the real connection.
+   *
+   * @param statementCache
+   *          the cache, shared by all the pooled connections wrapping the same real connection
+   */
+  public void setStatementCache(PreparedStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
+  /**
+   * Closes the cached statements before the real connection is closed.
+   */
+  public void closeStatementCache() {
+    if (statementCache != null) {
+      statementCache.close();
+    }
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -251,6 +312,9 @@ class PooledConnection implements InvocationHandler {
         // issue #579 toString() should never fail
         // throw an SQLException instead of a Runtime
         checkConnection();
+        if (statementCache != null && (PREPARE_STATEMENT.equals(methodName) || PREPARE_CALL.equals(methodName))) {
+          return prepareCachedStatement(method, args);
+        }
       }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
@@ -259,6 +323,16 @@ class PooledConnection implements InvocationHandler {
 
   }
 
+  private PreparedStatement prepareCachedStatement(Method method, Object[] args) throws Throwable {
+    PreparedStatementCache.Key key = new PreparedStatementCache.Key(method.getName(), args);
+    PreparedStatement statement = statementCache.take(key);
+    if (statement == null) {
+      statement = (PreparedStatement) method.invoke(realConnection, args);
+    }
+    return new PooledStatement(statement, method.getReturnType(), key, statementCache, proxyConnection)
+        .getProxyStatement();
+  }
+
   private void checkConnection() throws SQLException {
     if (!valid) {
       throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
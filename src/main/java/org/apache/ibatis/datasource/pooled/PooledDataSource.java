@@ -16,13 +16,20 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -40,6 +47,8 @@ public class PooledDataSource implements DataSource {
 
   private static final Log log = LogFactory.getLog(PooledDataSource.class);
 
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
   private final PoolState state = new PoolState(this);
 
   private final UnpooledDataSource dataSource;
@@ -53,8 +62,14 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolPreparedStatementCacheSize;
+  protected int poolMinimumIdleConnections;
+  protected int poolMaximumIdleTime;
+  protected int poolMaximumLifetime;
+  protected int poolMaintenanceInterval;
 
   private int expectedConnectionTypeCode;
+  private ScheduledExecutorService maintenanceExecutor;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -254,6 +269,71 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The number of prepared statements cached per connection. Cached statements are reused by the following sessions
+   * that check out the same connection. Disabled when 0 or less.
+   *
+   * @param poolPreparedStatementCacheSize
+   *          the maximum number of statements cached per connection
+   * @since 3.5.11
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle connections the maintenance thread keeps open, so that request threads do not have to open
+   * connections after a quiet period. It is capped by poolMaximumIdleConnections and requires
+   * poolMaintenanceInterval.
+   *
+   * @param poolMinimumIdleConnections
+   *          The minimum number of idle connections
+   * @since 3.5.11
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+  }
+
+  /**
+   * The time a connection can stay idle before the maintenance thread closes it. Connections are not closed below
+   * poolMinimumIdleConnections. Disabled when 0 or less.
+   *
+   * @param milliseconds
+   *          the maximum idle time
+   * @since 3.5.11
+   */
+  public void setPoolMaximumIdleTime(int milliseconds) {
+    this.poolMaximumIdleTime = milliseconds;
+  }
+
+  /**
+   * The maximum age of a connection. Older connections are closed when they are returned to the pool or by the
+   * maintenance thread when they are idle. Disabled when 0 or less.
+   *
+   * @param milliseconds
+   *          the maximum lifetime
+   * @since 3.5.11
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+  }
+
+  /**
+   * The delay between two runs of the maintenance thread. On each run the thread closes expired idle connections,
+   * validates the idle connections not used for poolPingConnectionsNotUsedFor (when it is greater than 0) with
+   * {@link Connection#isValid(int)} and opens connections up to poolMinimumIdleConnections. Disabled when 0 or less.
+   *
+   * @param milliseconds
+   *          the delay between two runs
+   * @since 3.5.11
+   */
+  public void setPoolMaintenanceInterval(int milliseconds) {
+    this.poolMaintenanceInterval = milliseconds;
+    forceCloseAll();
+    scheduleMaintenance();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -324,6 +404,26 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  public int getPoolMaximumIdleTime() {
+    return poolMaximumIdleTime;
+  }
+
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  public int getPoolMaintenanceInterval() {
+    return poolMaintenanceInterval;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
@@ -331,32 +431,10 @@ public class PooledDataSource implements DataSource {
     synchronized (state) {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       for (int i = state.activeConnections.size(); i > 0; i--) {
-        try {
-          PooledConnection conn = state.activeConnections.remove(i - 1);
-          conn.invalidate();
-
-          Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
-          realConn.close();
-        } catch (Exception e) {
-          // ignore
-        }
+        closeConnection(state.activeConnections.remove(i - 1));
       }
       for (int i = state.idleConnections.size(); i > 0; i--) {
-        try {
-          PooledConnection conn = state.idleConnections.remove(i - 1);
-          conn.invalidate();
-
-          Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
-          realConn.close();
-        } catch (Exception e) {
-          // ignore
-        }
+        closeConnection(state.idleConnections.remove(i - 1));
       }
     }
     if (log.isDebugEnabled()) {
@@ -372,17 +450,46 @@ public class PooledDataSource implements DataSource {
     return ("" + url + username + password).hashCode();
   }
 
+  private PooledConnection newPooledConnection() throws SQLException {
+    PooledConnection conn = new PooledConnection(dataSource.getConnection(), this);
+    if (poolPreparedStatementCacheSize > 0) {
+      conn.setStatementCache(new PreparedStatementCache(poolPreparedStatementCacheSize));
+    }
+    return conn;
+  }
+
+  private void closeConnection(PooledConnection conn) {
+    try {
+      conn.invalidate();
+      conn.closeStatementCache();
+
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
   protected void pushConnection(PooledConnection conn) throws SQLException {
 
     synchronized (state) {
       state.activeConnections.remove(conn);
       if (conn.isValid()) {
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn)) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.setStatementCache(conn.getStatementCache());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -396,6 +503,7 @@ public class PooledDataSource implements DataSource {
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
+          conn.closeStatementCache();
           conn.getRealConnection().close();
           if (log.isDebugEnabled()) {
             log.debug("Closed connection " + conn.getRealHashCode() + ".");
@@ -429,7 +537,7 @@ public class PooledDataSource implements DataSource {
           // Pool does not have available connection
           if (state.activeConnections.size() < poolMaximumActiveConnections) {
             // Can create new connection
-            conn = new PooledConnection(dataSource.getConnection(), this);
+            conn = newPooledConnection();
             if (log.isDebugEnabled()) {
               log.debug("Created connection " + conn.getRealHashCode() + ".");
             }
@@ -459,6 +567,7 @@ public class PooledDataSource implements DataSource {
                 }
               }
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              conn.setStatementCache(oldestActiveConnection.getStatementCache());
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
               oldestActiveConnection.invalidate();
@@ -547,7 +656,7 @@ public class PooledDataSource implements DataSource {
     }
 
     if (result && poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
-        && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
+        && conn.getTimeElapsedSinceLastCheck() > poolPingConnectionsNotUsedFor) {
       try {
         if (log.isDebugEnabled()) {
           log.debug("Testing connection " + conn.getRealHashCode() + " ...");
@@ -566,6 +675,7 @@ public class PooledDataSource implements DataSource {
       } catch (Exception e) {
         log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
         try {
+          conn.closeStatementCache();
           conn.getRealConnection().close();
         } catch (Exception e2) {
           // ignore
@@ -579,6 +689,137 @@ public class PooledDataSource implements DataSource {
     return result;
   }
 
+  /**
+   * Runs one maintenance cycle: closes the idle connections that have expired or have been idle for too long,
+   * validates the idle connections that have not been used recently and opens connections up to
+   * poolMinimumIdleConnections. Request threads are never blocked while the database is contacted.
+   */
+  protected void maintainPool() {
+    List<PooledConnection> retired = new ArrayList<>();
+    List<PooledConnection> toValidate = new ArrayList<>();
+    synchronized (state) {
+      int idleCount = state.idleConnections.size();
+      for (Iterator<PooledConnection> it = state.idleConnections.iterator(); it.hasNext();) {
+        PooledConnection conn = it.next();
+        boolean idleTooLong = poolMaximumIdleTime > 0 && conn.getTimeElapsedSinceLastUse() > poolMaximumIdleTime
+            && idleCount > poolMinimumIdleConnections;
+        if (idleTooLong || isExpired(conn)) {
+          it.remove();
+          idleCount--;
+          retired.add(conn);
+        } else if (poolPingConnectionsNotUsedFor > 0
+            && conn.getTimeElapsedSinceLastCheck() > poolPingConnectionsNotUsedFor) {
+          toValidate.add(conn);
+        }
+      }
+    }
+    for (PooledConnection conn : retired) {
+      if (log.isDebugEnabled()) {
+        log.debug("Retiring idle connection " + conn.getRealHashCode() + ".");
+      }
+      closeConnection(conn);
+    }
+    for (PooledConnection conn : toValidate) {
+      validateIdleConnection(conn);
+    }
+    fillPool();
+  }
+
+  private void validateIdleConnection(PooledConnection conn) {
+    synchronized (state) {
+      if (!state.idleConnections.remove(conn)) {
+        // checked out in the meantime
+        return;
+      }
+    }
+    boolean valid;
+    try {
+      valid = conn.getRealConnection().isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      valid = false;
+    }
+    synchronized (state) {
+      if (valid && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+          && state.idleConnections.size() < poolMaximumIdleConnections) {
+        conn.setLastValidatedTimestamp(System.currentTimeMillis());
+        state.idleConnections.add(conn);
+        state.notifyAll();
+        return;
+      }
+      if (!valid) {
+        if (log.isDebugEnabled()) {
+          log.debug("Connection " + conn.getRealHashCode() + " is BAD, discarding it.");
+        }
+        state.badConnectionCount++;
+      }
+    }
+    closeConnection(conn);
+  }
+
+  private void fillPool() {
+    int minimumIdle = Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections);
+    while (true) {
+      synchronized (state) {
+        if (!canAddIdleConnection(minimumIdle)) {
+          return;
+        }
+      }
+      PooledConnection conn;
+      try {
+        conn = newPooledConnection();
+      } catch (SQLException e) {
+        log.warn("Could not open a connection to fill the pool: " + e.getMessage());
+        return;
+      }
+      conn.setConnectionTypeCode(expectedConnectionTypeCode);
+      synchronized (state) {
+        if (canAddIdleConnection(minimumIdle)) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+          if (log.isDebugEnabled()) {
+            log.debug("Opened idle connection " + conn.getRealHashCode() + ".");
+          }
+          continue;
+        }
+      }
+      closeConnection(conn);
+      return;
+    }
+  }
+
+  private boolean canAddIdleConnection(int minimumIdle) {
+    int idleCount = state.idleConnections.size();
+    return idleCount < minimumIdle && idleCount + state.activeConnections.size() < poolMaximumActiveConnections;
+  }
+
+  private synchronized void scheduleMaintenance() {
+    if (maintenanceExecutor != null) {
+      maintenanceExecutor.shutdownNow();
+      maintenanceExecutor = null;
+    }
+    if (poolMaintenanceInterval > 0) {
+      maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-pool-maintenance");
+        thread.setDaemon(true);
+        return thread;
+      });
+      maintenanceExecutor.scheduleWithFixedDelay(new MaintenanceTask(this, maintenanceExecutor),
+          poolMaintenanceInterval, poolMaintenanceInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the maintenance thread, if any.
+   *
+   * @since 3.5.11
+   */
+  public synchronized void stopMaintenance() {
+    if (maintenanceExecutor != null) {
+      maintenanceExecutor.shutdownNow();
+      maintenanceExecutor = null;
+    }
+  }
+
   /**
    * Unwraps a pooled connection to get to the 'real' connection
    *
@@ -598,6 +839,7 @@ public class PooledDataSource implements DataSource {
 
   @Override
   protected void finalize() throws Throwable {
+    stopMaintenance();
     forceCloseAll();
     super.finalize();
   }
@@ -617,4 +859,33 @@ public class PooledDataSource implements DataSource {
     return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
   }
 
+  /**
+   * Holds the data source weakly so that an unreferenced data source can still be garbage collected. The executor is
+   * shut down once it is.
+   */
+  private static class MaintenanceTask implements Runnable {
+
+    private final WeakReference<PooledDataSource> dataSource;
+    private final ScheduledExecutorService executor;
+
+    MaintenanceTask(PooledDataSource dataSource, ScheduledExecutorService executor) {
+      this.dataSource = new WeakReference<>(dataSource);
+      this.executor = executor;
+    }
+
+    @Override
+    public void run() {
+      PooledDataSource ds = dataSource.get();
+      if (ds == null) {
+        executor.shutdown();
+        return;
+      }
+      try {
+        ds.maintainPool();
+      } catch (RuntimeException e) {
+        log.warn("Pool maintenance failed: " + e.getMessage());
+      }
+    }
+  }
+
 }
@@ -0,0 +1,172 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Wraps a cached prepared statement. Closing the proxy resets the statement and returns it to the
+ * {@link PreparedStatementCache} of the physical connection instead of closing it.
+ */
+class PooledStatement implements InvocationHandler {
+
+  private static final String CLOSE = "close";
+  private static final String IS_CLOSED = "isClosed";
+  private static final String GET_CONNECTION = "getConnection";
+  private static final String ADD_BATCH = "addBatch";
+
+  private final PreparedStatement realStatement;
+  private final PreparedStatement proxyStatement;
+  private final PreparedStatementCache.Key key;
+  private final PreparedStatementCache cache;
+  private final Connection proxyConnection;
+  private final Map<String, Object> changedSettings = new HashMap<>();
+  private boolean batched;
+  private boolean closed;
+
+  PooledStatement(PreparedStatement statement, Class<?> statementType, PreparedStatementCache.Key key,
+      PreparedStatementCache cache, Connection proxyConnection) {
+    this.realStatement = statement;
+    this.key = key;
+    this.cache = cache;
+    this.proxyConnection = proxyConnection;
+    this.proxyStatement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+        new Class<?>[] { statementType }, this);
+  }
+
+  public PreparedStatement getProxyStatement() {
+    return proxyStatement;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String methodName = method.getName();
+    if (CLOSE.equals(methodName)) {
+      close();
+      return null;
+    } else if (IS_CLOSED.equals(methodName)) {
+      return closed || realStatement.isClosed();
+    } else if (GET_CONNECTION.equals(methodName)) {
+      checkStatement();
+      return proxyConnection;
+    }
+    try {
+      if (!Object.class.equals(method.getDeclaringClass())) {
+        checkStatement();
+        if (ADD_BATCH.equals(methodName)) {
+          batched = true;
+        } else if (args != null && args.length == 1) {
+          rememberSetting(methodName);
+        }
+      }
+      return method.invoke(realStatement, args);
+    } catch (Throwable t) {
+      throw ExceptionUtil.unwrapThrowable(t);
+    }
+  }
+
+  private void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (realStatement.isClosed()) {
+      return;
+    }
+    try {
+      reset();
+    } catch (SQLException e) {
+      realStatement.close();
+      return;
+    }
+    cache.release(key, realStatement);
+  }
+
+  private void reset() throws SQLException {
+    realStatement.clearParameters();
+    realStatement.clearWarnings();
+    if (batched) {
+      realStatement.clearBatch();
+    }
+    for (Map.Entry<String, Object> setting : changedSettings.entrySet()) {
+      Object value = setting.getValue();
+      switch (setting.getKey()) {
+        case "setFetchSize":
+          realStatement.setFetchSize((Integer) value);
+          break;
+        case "setFetchDirection":
+          realStatement.setFetchDirection((Integer) value);
+          break;
+        case "setMaxRows":
+          realStatement.setMaxRows((Integer) value);
+          break;
+        case "setMaxFieldSize":
+          realStatement.setMaxFieldSize((Integer) value);
+          break;
+        case "setQueryTimeout":
+          realStatement.setQueryTimeout((Integer) value);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Remembers the original value of a statement setting before the caller changes it, so that the next user of the
+   * cached statement gets the driver defaults back.
+   */
+  private void rememberSetting(String methodName) throws SQLException {
+    if (changedSettings.containsKey(methodName)) {
+      return;
+    }
+    switch (methodName) {
+      case "setFetchSize":
+        changedSettings.put(methodName, realStatement.getFetchSize());
+        break;
+      case "setFetchDirection":
+        changedSettings.put(methodName, realStatement.getFetchDirection());
+        break;
+      case "setMaxRows":
+        changedSettings.put(methodName, realStatement.getMaxRows());
+        break;
+      case "setMaxFieldSize":
+        changedSettings.put(methodName, realStatement.getMaxFieldSize());
+        break;
+      case "setQueryTimeout":
+        changedSettings.put(methodName, realStatement.getQueryTimeout());
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void checkStatement() throws SQLException {
+    if (closed) {
+      throw new SQLException("Error accessing PooledStatement. Statement is closed.");
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * LRU cache of prepared statements that belongs to a physical connection.
+ * <p>
+ * The cache outlives the {@link PooledConnection} wrappers of the connection so that statements prepared in one
+ * session can be reused by the following ones. A statement is removed from the cache while it is in use and it is
+ * put back when the caller closes it, so the same statement is never handed out twice at the same time.
+ */
+class PreparedStatementCache {
+
+  private static final Log log = LogFactory.getLog(PreparedStatementCache.class);
+
+  private final int size;
+  private final Map<Key, PreparedStatement> statements;
+  private boolean closed;
+
+  PreparedStatementCache(int size) {
+    this.size = size;
+    this.statements = new LinkedHashMap<Key, PreparedStatement>(size, .75F, true) {
+      private static final long serialVersionUID = 4267176411845948333L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+        boolean tooBig = size() > PreparedStatementCache.this.size;
+        if (tooBig) {
+          closeQuietly(eldest.getValue());
+        }
+        return tooBig;
+      }
+    };
+  }
+
+  /**
+   * Takes the statement prepared for the key out of the cache.
+   *
+   * @param key
+   *          the statement key
+   * @return the cached statement or null if there is none
+   */
+  synchronized PreparedStatement take(Key key) {
+    return statements.remove(key);
+  }
+
+  /**
+   * Puts a statement back into the cache. If another statement is already cached for the same key or the cache has
+   * been closed, the given one is closed.
+   *
+   * @param key
+   *          the statement key
+   * @param statement
+   *          the statement that has been reset by the caller
+   */
+  synchronized void release(Key key, PreparedStatement statement) {
+    if (closed || statements.containsKey(key)) {
+      closeQuietly(statement);
+    } else {
+      statements.put(key, statement);
+    }
+  }
+
+  /**
+   * Closes all the cached statements. Statements released after this call are closed as well.
+   */
+  void close() {
+    List<PreparedStatement> toClose;
+    synchronized (this) {
+      closed = true;
+      toClose = new ArrayList<>(statements.values());
+      statements.clear();
+    }
+    for (PreparedStatement statement : toClose) {
+      closeQuietly(statement);
+    }
+  }
+
+  synchronized int getSize() {
+    return statements.size();
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Failed to close cached statement: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Identifies a prepared statement by the name of the preparing method (prepareStatement or prepareCall) and its
+   * arguments: the SQL, the result set type, concurrency and holdability and the generated keys mode.
+   */
+  static final class Key {
+
+    private final String methodName;
+    private final Object[] args;
+    private final int hashCode;
+
+    Key(String methodName, Object[] args) {
+      this.methodName = methodName;
+      this.args = args;
+      this.hashCode = 31 * methodName.hashCode() + Arrays.deepHashCode(args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode && methodName.equals(other.methodName) && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public String toString() {
+      return methodName + Arrays.deepToString(args);
+    }
+  }
+
+}
@@ -61,11 +61,15 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private boolean updated;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
-    this.localCache = new PerpetualCache("LocalCache");
+    this.localCache = BoundedLocalCache.isBounded(configuration)
+        ? new BoundedLocalCache("LocalCache", configuration.getLocalCacheSize(), configuration.getLocalCacheMaxRows(),
+            configuration.getLocalCacheMaxRowsPerQuery())
+        : new PerpetualCache("LocalCache");
     this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
     this.closed = false;
     this.configuration = configuration;
@@ -114,6 +118,8 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
+    updated = true;
+    transaction.beforeStatement(ms);
     return doUpdate(ms, parameter);
   }
 
@@ -167,6 +173,11 @@ public abstract class BaseExecutor implements Executor {
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         // issue #482
         clearLocalCache();
+      } else if (localCache instanceof BoundedLocalCache) {
+        // evict only now that no deferred load or nested query can need the results
+        for (Object evictedKey : ((BoundedLocalCache) localCache).evictExcess()) {
+          localOutputParameterCache.removeObject(evictedKey);
+        }
       }
     }
     return list;
@@ -175,6 +186,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
+    transaction.beforeStatement(ms);
     return doQueryCursor(ms, parameter, rowBounds, boundSql);
   }
 
@@ -243,6 +255,7 @@ public abstract class BaseExecutor implements Executor {
     if (required) {
       transaction.commit();
     }
+    updated = false;
   }
 
   @Override
@@ -255,6 +268,7 @@ public abstract class BaseExecutor implements Executor {
         if (required) {
           transaction.rollback();
         }
+        updated = false;
       }
     }
   }
@@ -322,7 +336,17 @@ public abstract class BaseExecutor implements Executor {
     List<E> list;
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
     try {
-      list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      if (isCoalescable(ms, resultHandler)) {
+        Integer timeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+        list = QueryCoalescer.query(configuration, key, timeout, () -> {
+          transaction.beforeStatement(ms);
+          return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+        });
+      } else {
+        updated |= ms.isDirtySelect();
+        transaction.beforeStatement(ms);
+        list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      }
     } finally {
       localCache.removeObject(key);
     }
@@ -333,6 +357,15 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  /**
+   * Identical selects are only shared at the top level and while this session holds no uncommitted changes, so that
+   * it never waits for a query that could be blocked by its own locks.
+   */
+  private boolean isCoalescable(MappedStatement ms, ResultHandler resultHandler) {
+    return configuration.isCoalesceQueries() && queryStack == 1 && !updated
+        && QueryCoalescer.isCoalescable(ms, resultHandler != null);
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
@@ -0,0 +1,142 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOLDER;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Local cache bounded by the number of results and the number of rows it holds.
+ * <p>
+ * The cache never evicts on its own: {@link BaseExecutor} calls {@link #evictExcess()} once the top level query and
+ * its deferred loads are done. This way nothing a {@code DeferredLoad} or a nested query is waiting for can disappear,
+ * and the execution placeholders, which are kept apart from the results, are never evicted.
+ */
+class BoundedLocalCache extends PerpetualCache {
+
+  private final int maxEntries;
+  private final long maxRows;
+  private final int maxRowsPerQuery;
+  private final Map<Object, Object> executing = new HashMap<>();
+  private final LinkedHashMap<Object, Object> results = new LinkedHashMap<>(16, .75F, true);
+  private final List<Object> oversized = new ArrayList<>();
+  private long rows;
+
+  BoundedLocalCache(String id, Integer maxEntries, Integer maxRows, Integer maxRowsPerQuery) {
+    super(id);
+    this.maxEntries = limit(maxEntries);
+    this.maxRows = limit(maxRows);
+    this.maxRowsPerQuery = limit(maxRowsPerQuery);
+  }
+
+  static boolean isBounded(Configuration configuration) {
+    return configuration != null && (configuration.getLocalCacheSize() != null
+        || configuration.getLocalCacheMaxRows() != null || configuration.getLocalCacheMaxRowsPerQuery() != null);
+  }
+
+  @Override
+  public int getSize() {
+    return executing.size() + results.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == EXECUTION_PLACEHOLDER) {
+      executing.put(key, value);
+      return;
+    }
+    executing.remove(key);
+    int count = rowCount(value);
+    rows += count - rowCount(results.put(key, value));
+    if (count > maxRowsPerQuery) {
+      oversized.add(key);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = executing.get(key);
+    return value != null ? value : results.get(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object value = executing.remove(key);
+    if (value == null) {
+      value = results.remove(key);
+      rows -= rowCount(value);
+    }
+    return value;
+  }
+
+  @Override
+  public void clear() {
+    executing.clear();
+    results.clear();
+    oversized.clear();
+    rows = 0;
+  }
+
+  /**
+   * Drops the results found larger than the per query limit when they were put, then the least recently used results
+   * until the cache fits its bounds.
+   *
+   * @return the keys of the evicted results
+   */
+  List<Object> evictExcess() {
+    List<Object> evicted = new ArrayList<>();
+    for (Object key : oversized) {
+      // the result may have been removed or replaced since it was put
+      Object value = results.get(key);
+      if (rowCount(value) > maxRowsPerQuery) {
+        results.remove(key);
+        rows -= rowCount(value);
+        evicted.add(key);
+      }
+    }
+    oversized.clear();
+    Iterator<Map.Entry<Object, Object>> it = results.entrySet().iterator();
+    while (it.hasNext() && (results.size() > maxEntries || rows > maxRows)) {
+      Map.Entry<Object, Object> entry = it.next();
+      it.remove();
+      rows -= rowCount(entry.getValue());
+      evicted.add(entry.getKey());
+    }
+    return evicted;
+  }
+
+  private static int limit(Integer value) {
+    return value == null || value < 0 ? Integer.MAX_VALUE : value;
+  }
+
+  private static int rowCount(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    return value instanceof Collection ? ((Collection<?>) value).size() : 1;
+  }
+
+}
@@ -16,21 +16,31 @@
 package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * @author Clinton Begin
@@ -38,11 +48,31 @@ import org.apache.ibatis.transaction.Transaction;
  */
 public class CachingExecutor implements Executor {
 
+  /**
+   * Set while a {@link RefreshAheadCache} reloads an entry, so that the query reads the database instead of the
+   * entry being refreshed.
+   */
+  private static final ThreadLocal<Boolean> reloading = new ThreadLocal<>();
+
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * Creates an executor that publishes the cache invalidations it commits to the other nodes.
+   *
+   * @param delegate
+   *          the delegate
+   * @param invalidationBus
+   *          the invalidation bus, null for a standalone node
+   * @since 3.5.11
+   */
+  public CachingExecutor(Executor delegate, CacheInvalidationBus invalidationBus) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(invalidationBus);
     delegate.setExecutorWrapper(this);
   }
 
@@ -72,7 +102,10 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    Cache cache = ms.getCache();
+    if (cache != null && ms.isFlushCacheRequired()) {
+      tcm.invalidate(cache, () -> SqlTables.of(ms, ms.getBoundSql(parameterObject).getSql()));
+    }
     return delegate.update(ms, parameterObject);
   }
 
@@ -93,7 +126,7 @@ public class CachingExecutor implements Executor {
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql)
       throws SQLException {
     Cache cache = ms.getCache();
-    if (cache != null) {
+    if (cache != null && reloading.get() == null) {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
@@ -101,7 +134,8 @@ public class CachingExecutor implements Executor {
         List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
           list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-          tcm.putObject(cache, key, list); // issue #578 and #116
+          tcm.putObject(cache, key, list, () -> SqlTables.ofResults(ms, boundSql.getSql()),
+              () -> newLoader(ms, parameterObject, rowBounds, key, boundSql)); // issue #578 and #116
         }
         return list;
       }
@@ -161,6 +195,64 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
+  /**
+   * Creates a loader that runs the query again in a new transaction for a {@link RefreshAheadCache}. The loader keeps
+   * the SQL and the values bound to it instead of the parameter object, so that later changes to the parameter do not
+   * affect it and the parameter is not kept in memory. It gives up if the key was extended, e.g. by a
+   * {@code ShardedSqlSession}, as the query would then run against another database.
+   */
+  private Callable<Object> newLoader(MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key,
+      BoundSql boundSql) {
+    Configuration configuration = ms.getConfiguration();
+    TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    MetaObject metaObject = null;
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    Map<String, Object> values = new HashMap<>();
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      String propertyName = parameterMapping.getProperty();
+      Object value;
+      // mimic DefaultParameterHandler logic
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        value = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        value = null;
+      } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        value = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        value = metaObject.getValue(propertyName);
+      }
+      String snapshotName = "__snapshot_" + parameterMappings.size();
+      values.put(snapshotName, value);
+      parameterMappings.add(new ParameterMapping.Builder(configuration, snapshotName, parameterMapping.getTypeHandler())
+          .mode(parameterMapping.getMode()).javaType(parameterMapping.getJavaType())
+          .jdbcType(parameterMapping.getJdbcType()).numericScale(parameterMapping.getNumericScale())
+          .resultMapId(parameterMapping.getResultMapId()).jdbcTypeName(parameterMapping.getJdbcTypeName())
+          .expression(parameterMapping.getExpression()).build());
+    }
+    String sql = boundSql.getSql();
+    return () -> {
+      Environment environment = configuration.getEnvironment();
+      Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+      Executor executor = configuration.newExecutor(tx, ExecutorType.SIMPLE);
+      reloading.set(Boolean.TRUE);
+      try {
+        BoundSql reloadSql = new BoundSql(configuration, sql, parameterMappings, null);
+        values.forEach(reloadSql::setAdditionalParameter);
+        CacheKey reloadKey = executor.createCacheKey(ms, null, rowBounds, reloadSql);
+        if (!key.equals(reloadKey)) {
+          return null;
+        }
+        return executor.query(ms, null, rowBounds, NO_RESULT_HANDLER, reloadKey, reloadSql);
+      } finally {
+        reloading.remove();
+        executor.close(false);
+      }
+    };
+  }
+
   private void flushCacheIfRequired(MappedStatement ms) {
     Cache cache = ms.getCache();
     if (cache != null && ms.isFlushCacheRequired()) {
@@ -0,0 +1,154 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Lets identical selects that run at the same time in different sessions share a single database round trip.
+ * <p>
+ * The first session to run a query becomes the leader of a flight identified by the configuration and the cache key,
+ * which covers the statement, the parameters, the row bounds, the SQL and the environment. Sessions running the same
+ * query while the flight is open wait for it and get a copy of the result, made by serialization. Nothing is held
+ * after the leader's query returns, and a follower runs the query on its own if the leader fails, its result cannot
+ * be serialized or it does not return within the statement timeout.
+ */
+final class QueryCoalescer {
+
+  private static final Log log = LogFactory.getLog(QueryCoalescer.class);
+
+  private static final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+  private QueryCoalescer() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Returns whether the statement is a plain read whose result can be shared: no result handler, no output
+   * parameters, no side effects and no nested queries, which would need the session of the leader.
+   */
+  static boolean isCoalescable(MappedStatement ms, boolean hasResultHandler) {
+    if (hasResultHandler || ms.isDirtySelect() || ms.getStatementType() == StatementType.CALLABLE) {
+      return false;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      if (resultMap.hasNestedQueries()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Runs the query, or waits for the same query already running in another session.
+   *
+   * @param configuration
+   *          the configuration
+   * @param key
+   *          the cache key of the query
+   * @param timeout
+   *          the statement timeout in seconds, or {@code null} to wait for the other session without a bound
+   * @param query
+   *          runs the query against the database
+   * @return the result
+   * @throws SQLException
+   *           if the query fails
+   */
+  static <E> List<E> query(Configuration configuration, CacheKey key, Integer timeout, Query<E> query)
+      throws SQLException {
+    Object flightKey = Arrays.asList(configuration, key);
+    Flight flight = new Flight();
+    Flight leader = flights.putIfAbsent(flightKey, flight);
+    if (leader != null) {
+      List<E> copy = leader.join(key, timeout);
+      return copy != null ? copy : query.run();
+    }
+    try {
+      List<E> list = query.run();
+      flight.land(key, list);
+      return list;
+    } finally {
+      flights.remove(flightKey, flight);
+      flight.close();
+    }
+  }
+
+  @FunctionalInterface
+  interface Query<E> {
+    List<E> run() throws SQLException;
+  }
+
+  private static class Flight {
+    private final CountDownLatch landed = new CountDownLatch(1);
+    private final AtomicInteger followers = new AtomicInteger();
+    private volatile Cache copies;
+
+    void land(CacheKey key, List<?> list) {
+      if (followers.get() == 0) {
+        return;
+      }
+      Cache cache = new SerializedCache(new PerpetualCache("QueryCoalescer"));
+      try {
+        cache.putObject(key, list);
+        copies = cache;
+      } catch (CacheException e) {
+        log.debug("Result of a coalesced query cannot be shared, followers will run it on their own. Cause: " + e);
+      }
+    }
+
+    void close() {
+      landed.countDown();
+    }
+
+    @SuppressWarnings("unchecked")
+    <E> List<E> join(CacheKey key, Integer timeout) {
+      followers.incrementAndGet();
+      try {
+        if (timeout == null) {
+          landed.await();
+        } else if (!landed.await(timeout, TimeUnit.SECONDS)) {
+          log.debug("Coalesced query did not return within " + timeout + " seconds, running it again.");
+          return null;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      Cache cache = copies;
+      return cache == null ? null : (List<E>) cache.getObject(key);
+    }
+  }
+
+}
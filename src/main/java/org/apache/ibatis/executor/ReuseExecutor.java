@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,7 +39,12 @@ import org.apache.ibatis.transaction.Transaction;
  */
 public class ReuseExecutor extends BaseExecutor {
 
-  private final Map<String, Statement> statementMap = new HashMap<>();
+  /**
+   * Statements per connection and SQL. A transaction may route statements to different connections (see
+   * {@link org.apache.ibatis.transaction.routing.ReadWriteTransaction}), so a statement is only reused on the
+   * connection it was prepared on.
+   */
+  private final Map<Connection, Map<String, Statement>> statementMap = new IdentityHashMap<>();
 
   public ReuseExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -70,8 +76,10 @@ public class ReuseExecutor extends BaseExecutor {
 
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) {
-    for (Statement stmt : statementMap.values()) {
-      closeStatement(stmt);
+    for (Map<String, Statement> statements : statementMap.values()) {
+      for (Statement stmt : statements.values()) {
+        closeStatement(stmt);
+      }
     }
     statementMap.clear();
     return Collections.emptyList();
@@ -81,33 +89,35 @@ public class ReuseExecutor extends BaseExecutor {
     Statement stmt;
     BoundSql boundSql = handler.getBoundSql();
     String sql = boundSql.getSql();
-    if (hasStatementFor(sql)) {
-      stmt = getStatement(sql);
+    Connection target = transaction.getConnection();
+    if (hasStatementFor(target, sql)) {
+      stmt = getStatement(target, sql);
       applyTransactionTimeout(stmt);
     } else {
       Connection connection = getConnection(statementLog);
       stmt = handler.prepare(connection, transaction.getTimeout());
-      putStatement(sql, stmt);
+      putStatement(target, sql, stmt);
     }
     handler.parameterize(stmt);
     return stmt;
   }
 
-  private boolean hasStatementFor(String sql) {
+  private boolean hasStatementFor(Connection connection, String sql) {
     try {
-      Statement statement = statementMap.get(sql);
+      Statement statement = getStatement(connection, sql);
       return statement != null && !statement.getConnection().isClosed();
     } catch (SQLException e) {
       return false;
     }
   }
 
-  private Statement getStatement(String s) {
-    return statementMap.get(s);
+  private Statement getStatement(Connection connection, String sql) {
+    Map<String, Statement> statements = statementMap.get(connection);
+    return statements == null ? null : statements.get(sql);
   }
 
-  private void putStatement(String sql, Statement stmt) {
-    statementMap.put(sql, stmt);
+  private void putStatement(Connection connection, String sql, Statement stmt) {
+    statementMap.computeIfAbsent(connection, k -> new HashMap<>()).put(sql, stmt);
   }
 
 }
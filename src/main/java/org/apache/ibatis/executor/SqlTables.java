@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Finds the tables a statement reads or writes, either as declared on the statement or by a lightweight scan of its
+ * SQL. The scan errs on the side of returning more tables than needed; when it cannot tell, it returns null, which
+ * means every table.
+ */
+final class SqlTables {
+
+  private static final String NAME = "[\\w$#\"`\\[\\].]+";
+  private static final String ALIAS = "(?:\\s+(?:as\\s+)?(?!(?:where|join|inner|left|right|full|cross|natural|on|group"
+      + "|order|having|limit|union|set|values|select|for)\\b)\\w+)?";
+  private static final Pattern LITERALS_AND_COMMENTS = Pattern.compile("'(?:[^']|'')*'|--[^\\n]*|/\\*.*?\\*/",
+      Pattern.DOTALL);
+  private static final Pattern TABLE_LIST = Pattern.compile(
+      "\\b(?:from|join|into|update|using)\\s+(" + NAME + ALIAS + "(?:\\s*,\\s*" + NAME + ALIAS + ")*)",
+      Pattern.CASE_INSENSITIVE);
+  private static final Pattern WRITE_TARGET = Pattern.compile(
+      "^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|merge\\s+into|update|delete\\s+from|delete"
+          + "|truncate\\s+table)\\s+(" + NAME + ")",
+      Pattern.CASE_INSENSITIVE);
+
+  private SqlTables() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Returns the tables the statement depends on: the ones it reads for a select, the ones it modifies otherwise.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param sql
+   *          the SQL of the statement
+   * @return the lower case table names or null if unknown
+   */
+  static Set<String> of(MappedStatement ms, String sql) {
+    if (ms.getTables() != null) {
+      Set<String> tables = new HashSet<>();
+      for (String table : ms.getTables()) {
+        tables.add(normalize(table));
+      }
+      return tables;
+    }
+    if (ms.getStatementType() == StatementType.CALLABLE) {
+      return null;
+    }
+    String stripped = LITERALS_AND_COMMENTS.matcher(sql).replaceAll(" ");
+    return ms.getSqlCommandType() == SqlCommandType.SELECT ? readTables(stripped) : writtenTables(stripped);
+  }
+
+  /**
+   * Returns the tables the results of a select depend on: the ones its own SQL reads plus the ones read by the nested
+   * selects of its result maps, which build part of the cached objects either eagerly or through lazy loading.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param sql
+   *          the SQL of the statement
+   * @return the lower case table names or null if unknown
+   */
+  static Set<String> ofResults(MappedStatement ms, String sql) {
+    Set<String> tables = of(ms, sql);
+    if (tables == null) {
+      return null;
+    }
+    Set<Object> visited = new HashSet<>();
+    visited.add(ms.getId());
+    return addNestedTables(ms.getConfiguration(), ms.getResultMaps(), tables, visited) ? tables : null;
+  }
+
+  private static boolean addNestedTables(Configuration configuration, List<ResultMap> resultMaps, Set<String> tables,
+      Set<Object> visited) {
+    for (ResultMap resultMap : resultMaps) {
+      if (!addNestedTables(configuration, resultMap, tables, visited)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean addNestedTables(Configuration configuration, ResultMap resultMap, Set<String> tables,
+      Set<Object> visited) {
+    if (!visited.add(resultMap)) {
+      return true;
+    }
+    for (ResultMapping mapping : resultMap.getResultMappings()) {
+      if (!addNestedTables(configuration, mapping, tables, visited)) {
+        return false;
+      }
+    }
+    for (ResultMapping mapping : resultMap.getConstructorResultMappings()) {
+      if (!addNestedTables(configuration, mapping, tables, visited)) {
+        return false;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String resultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (!addNestedResultMap(configuration, resultMapId, tables, visited)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean addNestedTables(Configuration configuration, ResultMapping mapping, Set<String> tables,
+      Set<Object> visited) {
+    if (mapping.getNestedResultMapId() != null
+        && !addNestedResultMap(configuration, mapping.getNestedResultMapId(), tables, visited)) {
+      return false;
+    }
+    String queryId = mapping.getNestedQueryId();
+    if (queryId == null) {
+      return true;
+    }
+    if (!configuration.hasStatement(queryId, false)) {
+      return false;
+    }
+    MappedStatement nested = configuration.getMappedStatement(queryId, false);
+    if (!visited.add(nested)) {
+      return true;
+    }
+    Set<String> nestedTables;
+    if (nested.getTables() != null) {
+      nestedTables = of(nested, null);
+    } else {
+      SqlSource sqlSource = nested.getSqlSource();
+      // the SQL of dynamic and provided statements depends on the parameter, which is only known when loading
+      if (!(sqlSource instanceof RawSqlSource) && !(sqlSource instanceof StaticSqlSource)) {
+        return false;
+      }
+      nestedTables = of(nested, sqlSource.getBoundSql(null).getSql());
+    }
+    if (nestedTables == null) {
+      return false;
+    }
+    tables.addAll(nestedTables);
+    return addNestedTables(configuration, nested.getResultMaps(), tables, visited);
+  }
+
+  private static boolean addNestedResultMap(Configuration configuration, String resultMapId, Set<String> tables,
+      Set<Object> visited) {
+    if (!configuration.hasResultMap(resultMapId)) {
+      return false;
+    }
+    return addNestedTables(configuration, configuration.getResultMap(resultMapId), tables, visited);
+  }
+
+  private static Set<String> readTables(String sql) {
+    String head = sql.trim().toLowerCase(Locale.ENGLISH);
+    if (!head.startsWith("select") && !head.startsWith("with") && !head.startsWith("(")) {
+      return null;
+    }
+    Set<String> tables = new HashSet<>();
+    Matcher matcher = TABLE_LIST.matcher(sql);
+    while (matcher.find()) {
+      for (String item : matcher.group(1).split(",")) {
+        tables.add(normalize(item.trim().split("\\s+")[0]));
+      }
+    }
+    return tables;
+  }
+
+  private static Set<String> writtenTables(String sql) {
+    Set<String> tables = new HashSet<>();
+    for (String statement : sql.split(";")) {
+      if (statement.trim().isEmpty()) {
+        continue;
+      }
+      Matcher matcher = WRITE_TARGET.matcher(statement);
+      if (!matcher.find()) {
+        return null;
+      }
+      tables.add(normalize(matcher.group(1)));
+    }
+    return tables.isEmpty() ? null : tables;
+  }
+
+  private static String normalize(String name) {
+    String[] parts = name.replaceAll("[\"`\\[\\]]", "").split("\\.");
+    return parts[parts.length - 1].trim().toLowerCase(Locale.ENGLISH);
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import org.apache.ibatis.binding.FixedParamMap;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -92,19 +93,23 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
   @SuppressWarnings("unchecked")
   private void assignKeys(Configuration configuration, ResultSet rs, ResultSetMetaData rsmd, String[] keyProperties,
       Object parameter) throws SQLException {
-    if (parameter instanceof ParamMap || parameter instanceof StrictMap) {
+    if (isParamMap(parameter) || parameter instanceof StrictMap) {
       // Multi-param or single param with @Param
       assignKeysToParamMap(configuration, rs, rsmd, keyProperties, (Map<String, ?>) parameter);
     } else if (parameter instanceof ArrayList && !((ArrayList<?>) parameter).isEmpty()
-        && ((ArrayList<?>) parameter).get(0) instanceof ParamMap) {
+        && isParamMap(((ArrayList<?>) parameter).get(0))) {
       // Multi-param or single param with @Param in batch operation
-      assignKeysToParamMapList(configuration, rs, rsmd, keyProperties, (ArrayList<ParamMap<?>>) parameter);
+      assignKeysToParamMapList(configuration, rs, rsmd, keyProperties, (ArrayList<Map<String, ?>>) parameter);
     } else {
       // Single param without @Param
       assignKeysToParam(configuration, rs, rsmd, keyProperties, parameter);
     }
   }
 
+  private static boolean isParamMap(Object parameter) {
+    return parameter instanceof ParamMap || parameter instanceof FixedParamMap;
+  }
+
   private void assignKeysToParam(Configuration configuration, ResultSet rs, ResultSetMetaData rsmd,
       String[] keyProperties, Object parameter) throws SQLException {
     Collection<?> params = collectionize(parameter);
@@ -126,15 +131,15 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
   }
 
   private void assignKeysToParamMapList(Configuration configuration, ResultSet rs, ResultSetMetaData rsmd,
-      String[] keyProperties, ArrayList<ParamMap<?>> paramMapList) throws SQLException {
-    Iterator<ParamMap<?>> iterator = paramMapList.iterator();
+      String[] keyProperties, ArrayList<Map<String, ?>> paramMapList) throws SQLException {
+    Iterator<Map<String, ?>> iterator = paramMapList.iterator();
     List<KeyAssigner> assignerList = new ArrayList<>();
     long counter = 0;
     while (rs.next()) {
       if (!iterator.hasNext()) {
         throw new ExecutorException(String.format(MSG_TOO_MANY_KEYS, counter));
       }
-      ParamMap<?> paramMap = iterator.next();
+      Map<String, ?> paramMap = iterator.next();
       if (assignerList.isEmpty()) {
         for (int i = 0; i < keyProperties.length; i++) {
           assignerList
@@ -249,8 +254,8 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
 
     protected void assign(ResultSet rs, Object param) {
       if (paramName != null) {
-        // If paramName is set, param is ParamMap
-        param = ((ParamMap<?>) param).get(paramName);
+        // If paramName is set, param is a param map
+        param = ((Map<?, ?>) param).get(paramName);
       }
       MetaObject metaParam = configuration.newMetaObject(param);
       try {
@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,8 +17,11 @@ package org.apache.ibatis.executor.loader.javassist;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javassist.util.proxy.MethodHandler;
 import javassist.util.proxy.Proxy;
@@ -45,6 +48,12 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
   private static final String FINALIZE_METHOD = "finalize";
   private static final String WRITE_REPLACE_METHOD = "writeReplace";
+  private static final ClassValue<ProxyClass> proxyClasses = new ClassValue<ProxyClass>() {
+    @Override
+    protected ProxyClass computeValue(Class<?> type) {
+      return new ProxyClass(type);
+    }
+  };
 
   public JavassistProxyFactory() {
     try {
@@ -64,7 +73,19 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
   }
 
   static Object crateProxy(Class<?> type, MethodHandler callback, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    Object enhanced;
+    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
+    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
+    try {
+      enhanced = proxyClasses.get(type).getProxyType().getConstructor(typesArray).newInstance(valuesArray);
+    } catch (Exception e) {
+      throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
+    }
+    ((Proxy) enhanced).setHandler(callback);
+    return enhanced;
+  }
 
+  private static Class<?> createProxyType(Class<?> type) {
     ProxyFactory enhancer = new ProxyFactory();
     enhancer.setSuperclass(type);
 
@@ -80,16 +101,55 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
       // nothing to do here
     }
 
-    Object enhanced;
-    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
-    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
-    try {
-      enhanced = enhancer.create(typesArray, valuesArray);
-    } catch (Exception e) {
-      throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
+    return enhancer.createClass();
+  }
+
+  /**
+   * The proxy class generated for a result type, along with what the lazy loader has to do for each of its methods.
+   * Both are worked out the first time a proxy of the type is created or a method is called, instead of on every
+   * proxy creation and call.
+   */
+  private static class ProxyClass {
+
+    private final Class<?> proxyType;
+    private final ConcurrentMap<Method, ProxyMethod> methods = new ConcurrentHashMap<>();
+
+    private ProxyClass(Class<?> type) {
+      this.proxyType = createProxyType(type);
+    }
+
+    Class<?> getProxyType() {
+      return proxyType;
+    }
+
+    ProxyMethod getMethod(Method method) {
+      ProxyMethod proxyMethod = methods.get(method);
+      if (proxyMethod == null) {
+        proxyMethod = new ProxyMethod(method.getName());
+        methods.putIfAbsent(method, proxyMethod);
+      }
+      return proxyMethod;
+    }
+  }
+
+  private static class ProxyMethod {
+
+    private final String name;
+    private final boolean writeReplace;
+    private final boolean finalize;
+    private final boolean setter;
+    private final boolean getter;
+    /** Upper-cased like the keys of {@link ResultLoaderMap}, so that looking it up does not convert it again. */
+    private final String property;
+
+    private ProxyMethod(String name) {
+      this.name = name;
+      this.writeReplace = WRITE_REPLACE_METHOD.equals(name);
+      this.finalize = FINALIZE_METHOD.equals(name);
+      this.setter = PropertyNamer.isSetter(name);
+      this.getter = PropertyNamer.isGetter(name);
+      this.property = setter || getter ? PropertyNamer.methodToProperty(name).toUpperCase(Locale.ENGLISH) : null;
     }
-    ((Proxy) enhanced).setHandler(callback);
-    return enhanced;
   }
 
   private static class EnhancedResultObjectProxyImpl implements MethodHandler {
@@ -122,10 +182,10 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
     @Override
     public Object invoke(Object enhanced, Method method, Method methodProxy, Object[] args) throws Throwable {
-      final String methodName = method.getName();
+      final ProxyMethod proxyMethod = proxyClasses.get(type).getMethod(method);
       try {
         synchronized (lazyLoader) {
-          if (WRITE_REPLACE_METHOD.equals(methodName)) {
+          if (proxyMethod.writeReplace) {
             Object original;
             if (constructorArgTypes.isEmpty()) {
               original = objectFactory.create(type);
@@ -139,16 +199,14 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
               return original;
             }
           } else {
-            if (lazyLoader.size() > 0 && !FINALIZE_METHOD.equals(methodName)) {
-              if (aggressive || lazyLoadTriggerMethods.contains(methodName)) {
+            if (lazyLoader.size() > 0 && !proxyMethod.finalize) {
+              if (aggressive || lazyLoadTriggerMethods.contains(proxyMethod.name)) {
                 lazyLoader.loadAll();
-              } else if (PropertyNamer.isSetter(methodName)) {
-                final String property = PropertyNamer.methodToProperty(methodName);
-                lazyLoader.remove(property);
-              } else if (PropertyNamer.isGetter(methodName)) {
-                final String property = PropertyNamer.methodToProperty(methodName);
-                if (lazyLoader.hasLoader(property)) {
-                  lazyLoader.load(property);
+              } else if (proxyMethod.setter) {
+                lazyLoader.remove(proxyMethod.property);
+              } else if (proxyMethod.getter) {
+                if (lazyLoader.hasLoader(proxyMethod.property)) {
+                  lazyLoader.load(proxyMethod.property);
                 }
               }
             }
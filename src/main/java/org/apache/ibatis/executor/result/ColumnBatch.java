@@ -0,0 +1,192 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.lang.reflect.Array;
+import java.util.BitSet;
+
+import org.apache.ibatis.executor.ExecutorException;
+
+/**
+ * The rows of a select held column by column.
+ * <p>
+ * Integer columns are held in an {@code int[]}, big integer columns and decimals without fraction digits in a
+ * {@code long[]} and floating point columns in a {@code double[]}, all read with the primitive getters of the
+ * {@link java.sql.ResultSet}. Any other column is held in an {@code Object[]}. A SQL NULL is held as 0 in primitive
+ * columns and is reported by {@link #isNull(int, int)}.
+ * <p>
+ * Columns are numbered from 1 as in JDBC and rows from 0. The arrays returned by the getters matching the type a
+ * column is held in are not copied.
+ *
+ * @since 3.5.11
+ */
+public final class ColumnBatch {
+
+  private final String[] labels;
+  private final Object[] columns;
+  private final BitSet[] nulls;
+  private final int rowCount;
+
+  ColumnBatch(String[] labels, Object[] columns, BitSet[] nulls, int rowCount) {
+    this.labels = labels;
+    this.columns = columns;
+    this.nulls = nulls;
+    this.rowCount = rowCount;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return labels.length;
+  }
+
+  public String getColumnLabel(int column) {
+    return labels[index(column)];
+  }
+
+  /**
+   * Gets the number of the column with the given label, ignoring case.
+   *
+   * @param label
+   *          the column label
+   * @return the column number, starting from 1
+   */
+  public int getColumn(String label) {
+    for (int i = 0; i < labels.length; i++) {
+      if (labels[i].equalsIgnoreCase(label)) {
+        return i + 1;
+      }
+    }
+    throw new ExecutorException("The result has no column labeled '" + label + "'.");
+  }
+
+  public boolean isNull(int column, int row) {
+    BitSet columnNulls = nulls[index(column)];
+    return columnNulls != null && columnNulls.get(row);
+  }
+
+  public int[] getInts(int column) {
+    Object values = columns[index(column)];
+    if (values instanceof int[]) {
+      return (int[]) values;
+    } else if (values instanceof long[]) {
+      long[] longs = (long[]) values;
+      int[] ints = new int[longs.length];
+      for (int i = 0; i < longs.length; i++) {
+        ints[i] = Math.toIntExact(longs[i]);
+      }
+      return ints;
+    } else if (values instanceof Object[]) {
+      int[] ints = new int[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        ints[i] = number(column, i).intValue();
+      }
+      return ints;
+    }
+    throw notConvertible(column, "int");
+  }
+
+  public long[] getLongs(int column) {
+    Object values = columns[index(column)];
+    if (values instanceof long[]) {
+      return (long[]) values;
+    } else if (values instanceof int[]) {
+      int[] ints = (int[]) values;
+      long[] longs = new long[ints.length];
+      for (int i = 0; i < ints.length; i++) {
+        longs[i] = ints[i];
+      }
+      return longs;
+    } else if (values instanceof Object[]) {
+      long[] longs = new long[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        longs[i] = number(column, i).longValue();
+      }
+      return longs;
+    }
+    throw notConvertible(column, "long");
+  }
+
+  public double[] getDoubles(int column) {
+    Object values = columns[index(column)];
+    if (values instanceof double[]) {
+      return (double[]) values;
+    }
+    double[] doubles = new double[rowCount];
+    if (values instanceof int[]) {
+      int[] ints = (int[]) values;
+      for (int i = 0; i < rowCount; i++) {
+        doubles[i] = ints[i];
+      }
+    } else if (values instanceof long[]) {
+      long[] longs = (long[]) values;
+      for (int i = 0; i < rowCount; i++) {
+        doubles[i] = longs[i];
+      }
+    } else {
+      for (int i = 0; i < rowCount; i++) {
+        doubles[i] = number(column, i).doubleValue();
+      }
+    }
+    return doubles;
+  }
+
+  /**
+   * Gets the values of a column as objects, boxing the values of primitive columns. SQL NULLs are returned as null.
+   *
+   * @param column
+   *          the column number, starting from 1
+   * @return the values
+   */
+  public Object[] getObjects(int column) {
+    Object values = columns[index(column)];
+    if (values instanceof Object[]) {
+      return (Object[]) values;
+    }
+    Object[] objects = new Object[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      if (!isNull(column, i)) {
+        objects[i] = Array.get(values, i);
+      }
+    }
+    return objects;
+  }
+
+  private Number number(int column, int row) {
+    Object value = ((Object[]) columns[index(column)])[row];
+    if (value == null) {
+      return 0;
+    } else if (value instanceof Number) {
+      return (Number) value;
+    }
+    throw notConvertible(column, "number");
+  }
+
+  private ExecutorException notConvertible(int column, String type) {
+    return new ExecutorException("Column '" + getColumnLabel(column) + "' cannot be read as " + type + ".");
+  }
+
+  private int index(int column) {
+    if (column < 1 || column > labels.length) {
+      throw new ExecutorException("Column number " + column + " is out of range, the result has " + labels.length
+          + " columns.");
+    }
+    return column - 1;
+  }
+
+}
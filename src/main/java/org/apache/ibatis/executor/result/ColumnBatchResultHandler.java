@@ -0,0 +1,154 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Collects the rows of a select into a {@link ColumnBatch}.
+ * <p>
+ * The result set handler recognizes this handler and fills it straight from the result set, so rows are neither mapped
+ * nor boxed. Only the first result set of the statement is collected.
+ *
+ * @since 3.5.11
+ */
+public class ColumnBatchResultHandler implements ResultHandler<Object> {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private ColumnBatch batch;
+
+  @Override
+  public void handleResult(ResultContext<?> context) {
+    throw new ExecutorException("A ColumnBatchResultHandler reads the result set directly and cannot handle mapped "
+        + "objects. Check that no plugin replaces the ResultSetHandler.");
+  }
+
+  /**
+   * Reads the remaining rows of the result set, up to the given limit.
+   *
+   * @param rs
+   *          the result set, positioned before the first row to read
+   * @param limit
+   *          the maximum number of rows to read
+   * @return the number of rows read
+   * @throws SQLException
+   *           if reading fails
+   */
+  public int handleResultSet(ResultSet rs, int limit) throws SQLException {
+    if (batch != null) {
+      return 0;
+    }
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+    String[] labels = new String[columnCount];
+    Object[] columns = new Object[columnCount];
+    BitSet[] nulls = new BitSet[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      labels[i] = metaData.getColumnLabel(i + 1);
+      columns[i] = newColumn(metaData, i + 1, INITIAL_CAPACITY);
+    }
+    int capacity = INITIAL_CAPACITY;
+    int rows = 0;
+    while (rows < limit && !rs.isClosed() && rs.next()) {
+      if (rows == capacity) {
+        capacity *= 2;
+        for (int i = 0; i < columnCount; i++) {
+          columns[i] = grow(columns[i], capacity);
+        }
+      }
+      for (int i = 0; i < columnCount; i++) {
+        if (readValue(rs, i + 1, columns[i], rows)) {
+          if (nulls[i] == null) {
+            nulls[i] = new BitSet();
+          }
+          nulls[i].set(rows);
+        }
+      }
+      rows++;
+    }
+    for (int i = 0; i < columnCount; i++) {
+      columns[i] = grow(columns[i], rows);
+    }
+    batch = new ColumnBatch(labels, columns, nulls, rows);
+    return rows;
+  }
+
+  public ColumnBatch getBatch() {
+    return batch;
+  }
+
+  private static Object newColumn(ResultSetMetaData metaData, int column, int capacity) throws SQLException {
+    switch (metaData.getColumnType(column)) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+        return new int[capacity];
+      case Types.BIGINT:
+        return new long[capacity];
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        return metaData.getScale(column) == 0 && metaData.getPrecision(column) > 0
+            && metaData.getPrecision(column) <= 18 ? new long[capacity] : new Object[capacity];
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return new double[capacity];
+      default:
+        return new Object[capacity];
+    }
+  }
+
+  /**
+   * Reads a value into the column and returns whether it was a SQL NULL.
+   */
+  private static boolean readValue(ResultSet rs, int column, Object values, int row) throws SQLException {
+    if (values instanceof int[]) {
+      ((int[]) values)[row] = rs.getInt(column);
+      return rs.wasNull();
+    } else if (values instanceof long[]) {
+      ((long[]) values)[row] = rs.getLong(column);
+      return rs.wasNull();
+    } else if (values instanceof double[]) {
+      ((double[]) values)[row] = rs.getDouble(column);
+      return rs.wasNull();
+    }
+    Object value = rs.getObject(column);
+    ((Object[]) values)[row] = value;
+    return value == null;
+  }
+
+  private static Object grow(Object values, int length) {
+    if (values instanceof int[]) {
+      return Arrays.copyOf((int[]) values, length);
+    } else if (values instanceof long[]) {
+      return Arrays.copyOf((long[]) values, length);
+    } else if (values instanceof double[]) {
+      return Arrays.copyOf((double[]) values, length);
+    }
+    return Arrays.copyOf((Object[]) values, length);
+  }
+
+}
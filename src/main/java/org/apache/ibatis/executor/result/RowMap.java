@@ -0,0 +1,288 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map holding one row of a result set.
+ * <p>
+ * All the rows of a result share the same immutable {@link Schema} that maps each column to a slot, so a row only holds
+ * its values in an array instead of a hash table with one entry object per column. Reading, replacing and removing the
+ * value of a column works in place. Adding a key that is not a column of the schema copies the row into a private
+ * {@link LinkedHashMap}, leaving the shared schema untouched. Entries are iterated in column order.
+ *
+ * @since 3.5.11
+ */
+public final class RowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private Schema schema;
+  private Object[] values;
+  private int size;
+  private Map<String, Object> detached;
+
+  public RowMap(Schema schema) {
+    this.schema = schema;
+    this.values = new Object[schema.keys.length];
+    Arrays.fill(values, Absent.INSTANCE);
+  }
+
+  @Override
+  public int size() {
+    return detached != null ? detached.size() : size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (detached != null) {
+      return detached.containsKey(key);
+    }
+    int index = schema.indexOf(key);
+    return index >= 0 && values[index] != Absent.INSTANCE;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (detached != null) {
+      return detached.get(key);
+    }
+    int index = schema.indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    if (detached == null) {
+      int index = schema.indexOf(key);
+      if (index >= 0) {
+        Object old = values[index];
+        values[index] = value;
+        if (old == Absent.INSTANCE) {
+          size++;
+          return null;
+        }
+        return old;
+      }
+      detach();
+    }
+    return detached.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (detached != null) {
+      return detached.remove(key);
+    }
+    int index = schema.indexOf(key);
+    return index < 0 ? null : removeAt(index);
+  }
+
+  @Override
+  public void clear() {
+    if (detached != null) {
+      detached.clear();
+    } else {
+      Arrays.fill(values, Absent.INSTANCE);
+      size = 0;
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return detached != null ? detached.entrySet() : new EntrySet();
+  }
+
+  private Object valueAt(int index) {
+    Object value = values[index];
+    return value == Absent.INSTANCE ? null : value;
+  }
+
+  private Object removeAt(int index) {
+    Object old = values[index];
+    if (old == Absent.INSTANCE) {
+      return null;
+    }
+    values[index] = Absent.INSTANCE;
+    size--;
+    return old;
+  }
+
+  private void detach() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != Absent.INSTANCE) {
+        map.put(schema.keys[i], values[i]);
+      }
+    }
+    detached = map;
+    schema = null;
+    values = null;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+    @Override
+    public int size() {
+      return RowMap.this.size();
+    }
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new Iterator<Entry<String, Object>>() {
+        private int next = advance(0);
+        private int last = -1;
+
+        private int advance(int from) {
+          int i = from;
+          while (i < values.length && values[i] == Absent.INSTANCE) {
+            i++;
+          }
+          return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+          if (detached != null) {
+            throw new ConcurrentModificationException();
+          }
+          return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = advance(next + 1);
+          return new RowEntry(last);
+        }
+
+        @Override
+        public void remove() {
+          if (last < 0) {
+            throw new IllegalStateException();
+          }
+          removeAt(last);
+          last = -1;
+        }
+      };
+    }
+  }
+
+  private class RowEntry implements Entry<String, Object> {
+
+    private final int index;
+
+    RowEntry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return schema.keys[index];
+    }
+
+    @Override
+    public Object getValue() {
+      return valueAt(index);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object old = valueAt(index);
+      values[index] = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return getKey().equals(e.getKey()) && (getValue() == null ? e.getValue() == null : getValue().equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * The keys of the rows of a result, each mapped to a slot of the value array of a {@link RowMap}. Duplicate keys
+   * keep the slot of their first occurrence.
+   */
+  public static final class Schema implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;
+    private final Map<String, Integer> indexes;
+
+    public Schema(Collection<String> keys) {
+      this.indexes = new HashMap<>();
+      for (String key : keys) {
+        indexes.putIfAbsent(key, indexes.size());
+      }
+      this.keys = new String[indexes.size()];
+      for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+        this.keys[entry.getValue()] = entry.getKey();
+      }
+    }
+
+    /**
+     * Gets the slot of a key.
+     *
+     * @param key
+     *          the key
+     * @return the slot, or -1 if the key is not part of the schema
+     */
+    public int indexOf(Object key) {
+      Integer index = indexes.get(key);
+      return index == null ? -1 : index;
+    }
+
+    public int size() {
+      return keys.length;
+    }
+  }
+
+  private enum Absent {
+    INSTANCE
+  }
+
+}
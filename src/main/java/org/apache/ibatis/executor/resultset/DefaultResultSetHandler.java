@@ -24,8 +24,10 @@ import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -44,9 +46,11 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnBatchResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.result.RowMap;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -57,6 +61,7 @@ import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
@@ -102,9 +107,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
   private final Map<String, List<String>> constructorAutoMappingColumns = new HashMap<>();
 
+  // constructor argument types, keyed by constructor mappings or auto-mapped constructor, shared by all rows
+  private final Map<Object, List<Class<?>>> constructorArgTypesCache = new IdentityHashMap<>();
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // rows read, recorded for the adaptive fetch size
+  private int rowCount;
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
@@ -219,9 +230,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    recordRowCount();
     return collapseSingleResultList(multipleResults);
   }
 
+  private void recordRowCount() {
+    if (configuration.isAdaptiveFetchSize() && mappedStatement.getRowCountStatistics() != null) {
+      mappedStatement.getRowCountStatistics().record(rowCount);
+    }
+  }
+
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -303,7 +321,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (parentMapping != null) {
         handleRowValues(rsw, resultMap, null, RowBounds.DEFAULT, parentMapping);
       } else {
-        if (resultHandler == null) {
+        if (resultHandler instanceof ColumnBatchResultHandler) {
+          skipRows(rsw.getResultSet(), rowBounds);
+          rowCount += ((ColumnBatchResultHandler) resultHandler).handleResultSet(rsw.getResultSet(), rowBounds.getLimit());
+        } else if (resultHandler == null) {
           DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
           handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
           multipleResults.add(defaultResultHandler.getResultList());
@@ -357,6 +378,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -637,9 +659,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap, ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
     this.useConstructorMappings = false; // reset previous mapping result
-    final List<Class<?>> constructorArgTypes = new ArrayList<>();
     final List<Object> constructorArgs = new ArrayList<>();
-    Object resultObject = createResultObject(rsw, resultMap, constructorArgTypes, constructorArgs, columnPrefix);
+    Object resultObject = createResultObject(rsw, resultMap, constructorArgs, columnPrefix);
+    final List<Class<?>> constructorArgTypes = constructorArgs.isEmpty() ? Collections.emptyList()
+        : getConstructorArgTypes(rsw, resultMap);
     if (resultObject != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
       final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
       for (ResultMapping propertyMapping : propertyMappings) {
@@ -654,7 +677,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultObject;
   }
 
-  private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix)
+  private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap, List<Object> constructorArgs, String columnPrefix)
       throws SQLException {
     final Class<?> resultType = resultMap.getType();
     final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
@@ -662,20 +685,47 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (hasTypeHandlerForResultObject(rsw, resultType)) {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
-      return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+      return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgs, columnPrefix);
+    } else if (Map.class.equals(resultType) && columnPrefix == null && resultMap.getResultMappings().isEmpty()
+        && DefaultObjectFactory.class.equals(objectFactory.getClass())) {
+      // auto-mapped maps are keyed by column name, rows share their keys
+      return new RowMap(rsw.getRowMapSchema());
     } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
-      return createByConstructorSignature(rsw, resultMap, columnPrefix, resultType, constructorArgTypes, constructorArgs);
+      return createByConstructorSignature(rsw, resultMap, columnPrefix, resultType, constructorArgs);
     }
     throw new ExecutorException("Do not know how to create an instance of " + resultType);
   }
 
+  private List<Class<?>> getConstructorArgTypes(ResultSetWrapper rsw, ResultMap resultMap) {
+    final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    if (!constructorMappings.isEmpty()) {
+      return getConstructorArgTypes(constructorMappings);
+    }
+    // only reached after the constructor was found, so the finder is never called
+    return getConstructorArgTypes(rsw.getAutomapConstructor(resultMap.getType(), type -> Optional.empty()).get());
+  }
+
+  private List<Class<?>> getConstructorArgTypes(List<ResultMapping> constructorMappings) {
+    return constructorArgTypesCache.computeIfAbsent(constructorMappings, k -> {
+      final List<Class<?>> argTypes = new ArrayList<>(constructorMappings.size());
+      for (ResultMapping constructorMapping : constructorMappings) {
+        argTypes.add(constructorMapping.getJavaType());
+      }
+      return Collections.unmodifiableList(argTypes);
+    });
+  }
+
+  private List<Class<?>> getConstructorArgTypes(Constructor<?> constructor) {
+    return constructorArgTypesCache.computeIfAbsent(constructor,
+        k -> Collections.unmodifiableList(Arrays.asList(constructor.getParameterTypes())));
+  }
+
   Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
-                                         List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
+                                         List<Object> constructorArgs, String columnPrefix) {
     boolean foundValues = false;
     for (ResultMapping constructorMapping : constructorMappings) {
-      final Class<?> parameterType = constructorMapping.getJavaType();
       final String column = constructorMapping.getColumn();
       final Object value;
       try {
@@ -691,18 +741,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
       }
-      constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
     }
-    return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+    return foundValues ? objectFactory.create(resultType, getConstructorArgTypes(constructorMappings), constructorArgs)
+        : null;
   }
 
   private Object createByConstructorSignature(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, Class<?> resultType,
-      List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
-    return applyConstructorAutomapping(rsw, resultMap, columnPrefix, resultType, constructorArgTypes, constructorArgs,
-        findConstructorForAutomapping(resultType, rsw).orElseThrow(() -> new ExecutorException(
-            "No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames())));
+      List<Object> constructorArgs) throws SQLException {
+    return applyConstructorAutomapping(rsw, resultMap, columnPrefix, resultType, constructorArgs,
+        rsw.getAutomapConstructor(resultType, type -> findConstructorForAutomapping(type, rsw))
+            .orElseThrow(() -> new ExecutorException(
+                "No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames())));
   }
 
   private Optional<Constructor<?>> findConstructorForAutomapping(final Class<?> resultType, ResultSetWrapper rsw) {
@@ -739,34 +790,33 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return true;
   }
 
-  private Object applyConstructorAutomapping(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Constructor<?> constructor) throws SQLException {
+  private Object applyConstructorAutomapping(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, Class<?> resultType, List<Object> constructorArgs, Constructor<?> constructor) throws SQLException {
     boolean foundValues = false;
     if (configuration.isArgNameBasedConstructorAutoMapping()) {
-      foundValues = applyArgNameBasedConstructorAutoMapping(rsw, resultMap, columnPrefix, resultType, constructorArgTypes, constructorArgs,
+      foundValues = applyArgNameBasedConstructorAutoMapping(rsw, resultMap, columnPrefix, constructorArgs,
           constructor, foundValues);
     } else {
-      foundValues = applyColumnOrderBasedConstructorAutomapping(rsw, constructorArgTypes, constructorArgs, constructor,
-          foundValues);
+      foundValues = applyColumnOrderBasedConstructorAutomapping(rsw, constructorArgs, constructor, foundValues);
     }
-    return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+    return foundValues ? objectFactory.create(resultType, getConstructorArgTypes(constructor), constructorArgs) : null;
   }
 
-  private boolean applyColumnOrderBasedConstructorAutomapping(ResultSetWrapper rsw, List<Class<?>> constructorArgTypes,
-      List<Object> constructorArgs, Constructor<?> constructor, boolean foundValues) throws SQLException {
-    for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-      Class<?> parameterType = constructor.getParameterTypes()[i];
+  private boolean applyColumnOrderBasedConstructorAutomapping(ResultSetWrapper rsw, List<Object> constructorArgs,
+      Constructor<?> constructor, boolean foundValues) throws SQLException {
+    Class<?>[] parameterTypes = constructor.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      Class<?> parameterType = parameterTypes[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
       Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
-      constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
     }
     return foundValues;
   }
 
-  private boolean applyArgNameBasedConstructorAutoMapping(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, Class<?> resultType,
-      List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Constructor<?> constructor, boolean foundValues)
+  private boolean applyArgNameBasedConstructorAutoMapping(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix,
+      List<Object> constructorArgs, Constructor<?> constructor, boolean foundValues)
       throws SQLException {
     List<String> missingArgs = null;
     Parameter[] params = constructor.getParameters();
@@ -779,7 +829,6 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           Class<?> paramType = param.getType();
           TypeHandler<?> typeHandler = rsw.getTypeHandler(paramType, columnName);
           Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
-          constructorArgTypes.add(paramType);
           constructorArgs.add(value);
           final String mapKey = resultMap.getId() + ":" + columnPrefix;
           if (!autoMappingsCache.containsKey(mapKey)) {
@@ -970,6 +1019,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
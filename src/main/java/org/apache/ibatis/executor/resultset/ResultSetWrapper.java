@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.executor.resultset;
 
+import java.lang.reflect.Constructor;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -25,8 +26,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
+import org.apache.ibatis.executor.result.RowMap;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.Configuration;
@@ -49,6 +53,8 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final Map<Class<?>, Optional<Constructor<?>>> automapConstructors = new HashMap<>();
+  private RowMap.Schema rowMapSchema;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -71,6 +77,35 @@ public class ResultSetWrapper {
     return this.columnNames;
   }
 
+  /**
+   * Gets the schema shared by the {@link RowMap} rows read from this result set, keyed by column name.
+   *
+   * @return the row map schema
+   * @since 3.5.11
+   */
+  public RowMap.Schema getRowMapSchema() {
+    if (rowMapSchema == null) {
+      rowMapSchema = new RowMap.Schema(columnNames);
+    }
+    return rowMapSchema;
+  }
+
+  /**
+   * Gets the constructor used to auto-map the rows of this result set to the given type. The constructor depends on
+   * the columns, so it is looked up once per result set instead of once per row.
+   *
+   * @param resultType
+   *          the type to create
+   * @param finder
+   *          looks up the constructor the first time
+   * @return the constructor, or empty if none matches the columns
+   * @since 3.5.11
+   */
+  public Optional<Constructor<?>> getAutomapConstructor(Class<?> resultType,
+      Function<Class<?>, Optional<Constructor<?>>> finder) {
+    return automapConstructors.computeIfAbsent(resultType, finder);
+  }
+
   public List<String> getClassNames() {
     return Collections.unmodifiableList(classNames);
   }
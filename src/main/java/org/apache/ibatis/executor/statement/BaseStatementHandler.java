@@ -119,6 +119,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    if (configuration.isAdaptiveFetchSize() && mappedStatement.getRowCountStatistics() != null) {
+      Integer adaptiveFetchSize = mappedStatement.getRowCountStatistics()
+          .suggestFetchSize(configuration.getMinFetchSize(), configuration.getMaxFetchSize());
+      if (adaptiveFetchSize != null) {
+        stmt.setFetchSize(adaptiveFetchSize);
+        return;
+      }
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A class listed in a package index, with the facts about it recorded at build time by
+ * {@link PackageIndexProcessor}. They let {@link ResolverUtil.Test#mayMatch(IndexedClass)} skip the classes that
+ * cannot match without loading them.
+ * <p>
+ * An entry is a line holding the binary name of the class, its kind ({@code class} or {@code interface}) and its
+ * traits: {@code abstract}, {@code member} for a nested class, {@code alias} and {@code mapped-types} for the classes
+ * annotated with {@code @Alias} and {@code @MappedTypes}, and {@code type-handler} for the implementations of
+ * {@code TypeHandler}.
+ *
+ * @since 3.5.11
+ */
+public final class IndexedClass {
+
+  static final String CLASS = "class";
+  static final String INTERFACE = "interface";
+  static final String ABSTRACT = "abstract";
+  static final String MEMBER = "member";
+  static final String ALIAS = "alias";
+  static final String MAPPED_TYPES = "mapped-types";
+  static final String TYPE_HANDLER = "type-handler";
+
+  private final String name;
+  private final boolean described;
+  private final Set<String> facts;
+
+  private IndexedClass(String name, boolean described, Set<String> facts) {
+    this.name = name;
+    this.described = described;
+    this.facts = facts;
+  }
+
+  static IndexedClass parse(String line) {
+    String[] tokens = line.split("\\s+");
+    Set<String> facts = new HashSet<>(Arrays.asList(tokens).subList(1, tokens.length));
+    return new IndexedClass(tokens[0], facts.contains(CLASS) || facts.contains(INTERFACE), facts);
+  }
+
+  /**
+   * Returns the binary name of the class.
+   *
+   * @return the binary name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns whether the facts about the class were recorded. Entries written by older versions of the processor only
+   * hold the name.
+   *
+   * @return {@code true} if the facts are known
+   */
+  boolean isDescribed() {
+    return described;
+  }
+
+  public boolean isInterface() {
+    return facts.contains(INTERFACE);
+  }
+
+  public boolean isAbstract() {
+    return facts.contains(ABSTRACT);
+  }
+
+  public boolean isMemberClass() {
+    return facts.contains(MEMBER);
+  }
+
+  public boolean hasAlias() {
+    return facts.contains(ALIAS);
+  }
+
+  public boolean hasMappedTypes() {
+    return facts.contains(MAPPED_TYPES);
+  }
+
+  public boolean isTypeHandler() {
+    return facts.contains(TYPE_HANDLER);
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The classes listed in the package index resources written at build time by {@link PackageIndexProcessor}.
+ * <p>
+ * A package is resolved from the index only when every classpath root containing it has an index, otherwise
+ * {@link ResolverUtil} falls back to scanning it through the {@link VFS}.
+ *
+ * @since 3.5.11
+ */
+final class PackageIndex {
+
+  static final String RESOURCE = "META-INF/mybatis/package-index";
+
+  /** The indexed classes, by classpath root. */
+  private final Map<String, List<IndexedClass>> classNames;
+
+  private PackageIndex(Map<String, List<IndexedClass>> classNames) {
+    this.classNames = classNames;
+  }
+
+  /**
+   * Reads the package index resources visible to a class loader.
+   *
+   * @param classLoader
+   *          the class loader
+   * @return the package index, empty if there is no index resource
+   * @throws IOException
+   *           if an index resource cannot be read
+   */
+  static PackageIndex load(ClassLoader classLoader) throws IOException {
+    Map<String, List<IndexedClass>> classNames = new HashMap<>();
+    for (URL url : Collections.list(classLoader.getResources(RESOURCE))) {
+      String root = rootOf(url, RESOURCE);
+      if (root != null) {
+        classNames.put(root, read(url));
+      }
+    }
+    return new PackageIndex(classNames);
+  }
+
+  boolean isEmpty() {
+    return classNames.isEmpty();
+  }
+
+  /**
+   * Lists the classes of a package and its subpackages.
+   *
+   * @param classLoader
+   *          the class loader
+   * @param path
+   *          the path of the package
+   * @return the classes, or null if the package is not fully covered by the index
+   * @throws IOException
+   *           if the package cannot be looked up
+   */
+  List<IndexedClass> list(ClassLoader classLoader, String path) throws IOException {
+    List<URL> urls = Collections.list(classLoader.getResources(path));
+    if (urls.isEmpty()) {
+      return null;
+    }
+    String packagePrefix = path.replace('/', '.') + '.';
+    List<IndexedClass> children = new ArrayList<>();
+    for (URL url : urls) {
+      String root = rootOf(url, path);
+      List<IndexedClass> indexed = root == null ? null : classNames.get(root);
+      if (indexed == null) {
+        return null;
+      }
+      for (IndexedClass indexedClass : indexed) {
+        if (indexedClass.getName().startsWith(packagePrefix)) {
+          children.add(indexedClass);
+        }
+      }
+    }
+    return children;
+  }
+
+  private static String rootOf(URL url, String path) {
+    String location = url.toExternalForm();
+    if (location.endsWith("/")) {
+      location = location.substring(0, location.length() - 1);
+    }
+    return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : null;
+  }
+
+  private static List<IndexedClass> read(URL url) throws IOException {
+    List<IndexedClass> classNames = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty() && line.charAt(0) != '#') {
+          classNames.add(IndexedClass.parse(line));
+        }
+      }
+    }
+    return classNames;
+  }
+
+}
@@ -0,0 +1,185 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes the package index read by {@link ResolverUtil}, so that the
+ * {@code <package>} elements of typeAliases, typeHandlers and mappers can be resolved without scanning the
+ * classpath.
+ * <p>
+ * The index lists every class compiled by the build, along with the facts described in {@link IndexedClass}. It is
+ * not registered as a service, enable it explicitly, e.g. with
+ * {@code javac -processor org.apache.ibatis.io.PackageIndexProcessor}. The index is rebuilt from the classes compiled
+ * by the build; the classes of a previous build that are not recompiled are kept as long as their class files still
+ * exist, so incremental builds extend it while deleted classes drop out.
+ *
+ * @since 3.5.11
+ */
+@SupportedAnnotationTypes("*")
+public class PackageIndexProcessor extends AbstractProcessor {
+
+  private final Map<String, String> entries = new TreeMap<>();
+  private final Map<String, String> previousEntries = new HashMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    try {
+      FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+          PackageIndex.RESOURCE);
+      try (BufferedReader reader = new BufferedReader(
+          new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          line = line.trim();
+          if (!line.isEmpty() && line.charAt(0) != '#') {
+            previousEntries.put(IndexedClass.parse(line).getName(), line);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // no index yet
+    }
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getRootElements()) {
+      addTypes(element);
+    }
+    if (roundEnv.processingOver()) {
+      writeIndex();
+    }
+    return false;
+  }
+
+  private void addTypes(Element element) {
+    if (element instanceof TypeElement) {
+      TypeElement type = (TypeElement) element;
+      String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+      entries.put(className, describe(className, type));
+      for (Element enclosed : element.getEnclosedElements()) {
+        addTypes(enclosed);
+      }
+    }
+  }
+
+  private String describe(String className, TypeElement type) {
+    StringBuilder entry = new StringBuilder(className);
+    boolean isInterface = type.getKind().isInterface();
+    entry.append(' ').append(isInterface ? IndexedClass.INTERFACE : IndexedClass.CLASS);
+    if (!isInterface && type.getModifiers().contains(Modifier.ABSTRACT)) {
+      entry.append(' ').append(IndexedClass.ABSTRACT);
+    }
+    if (type.getNestingKind().isNested()) {
+      entry.append(' ').append(IndexedClass.MEMBER);
+    }
+    if (isAnnotatedWith(type, "org.apache.ibatis.type.Alias")) {
+      entry.append(' ').append(IndexedClass.ALIAS);
+    }
+    if (isAnnotatedWith(type, "org.apache.ibatis.type.MappedTypes")) {
+      entry.append(' ').append(IndexedClass.MAPPED_TYPES);
+    }
+    TypeElement typeHandler = processingEnv.getElementUtils().getTypeElement("org.apache.ibatis.type.TypeHandler");
+    Types types = processingEnv.getTypeUtils();
+    if (typeHandler != null
+        && types.isAssignable(types.erasure(type.asType()), types.erasure(typeHandler.asType()))) {
+      entry.append(' ').append(IndexedClass.TYPE_HANDLER);
+    }
+    return entry.toString();
+  }
+
+  private static boolean isAnnotatedWith(TypeElement type, String annotationName) {
+    for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+          .contentEquals(annotationName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean classFileExists(String className) {
+    int dot = className.lastIndexOf('.');
+    String packageName = dot == -1 ? "" : className.substring(0, dot);
+    try {
+      FileObject classFile = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, packageName,
+          className.substring(dot + 1) + ".class");
+      try (InputStream in = classFile.openInputStream()) {
+        return true;
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private void writeIndex() {
+    // classes of a previous build that were not compiled again are kept as long as their class files exist
+    for (Map.Entry<String, String> previous : previousEntries.entrySet()) {
+      if (!entries.containsKey(previous.getKey()) && classFileExists(previous.getKey())) {
+        entries.put(previous.getKey(), previous.getValue());
+      }
+    }
+    if (entries.isEmpty()) {
+      return;
+    }
+    try {
+      FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          PackageIndex.RESOURCE);
+      try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (String entry : entries.values()) {
+          writer.write(entry);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Could not write " + PackageIndex.RESOURCE + ". Cause: " + e);
+    }
+  }
+
+}
@@ -17,9 +17,12 @@ package org.apache.ibatis.io;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -43,6 +46,10 @@ import org.apache.ibatis.logging.LogFactory;
  * use cases of scanning multiple packages for extensions of particular classes, or classes
  * annotated with a specific annotation.</p>
  *
+ * <p>When every location containing a package has a package index written at build time by
+ * {@link PackageIndexProcessor}, the classes of the package are read from the indexes instead
+ * of being listed through the {@link VFS}.</p>
+ *
  * <p>The standard usage pattern for the ResolverUtil class is as follows:</p>
  *
  * <pre>
@@ -64,6 +71,12 @@ public class ResolverUtil<T> {
    */
   private static final Log log = LogFactory.getLog(ResolverUtil.class);
 
+  /**
+   * The package indexes read so far, by class loader. The indexes of a class loader do not change as they are part of
+   * its classpath.
+   */
+  private static final Map<ClassLoader, PackageIndex> packageIndexes = Collections.synchronizedMap(new WeakHashMap<>());
+
   /**
    * A simple interface that specifies how to test classes to determine if they
    * are to be included in the results produced by the ResolverUtil.
@@ -79,6 +92,19 @@ public class ResolverUtil<T> {
      * @return true, if successful
      */
     boolean matches(Class<?> type);
+
+    /**
+     * Called with the classes listed in a package index before they are loaded. Returns false if the facts recorded
+     * about a class show it cannot match, so that it is not loaded at all.
+     *
+     * @param type
+     *          the indexed class
+     * @return false if the class cannot match
+     * @since 3.5.11
+     */
+    default boolean mayMatch(IndexedClass type) {
+      return true;
+    }
   }
 
   /**
@@ -246,8 +272,16 @@ public class ResolverUtil<T> {
     String path = getPackagePath(packageName);
 
     try {
-      List<String> children = VFS.getInstance().list(path);
-      for (String child : children) {
+      List<IndexedClass> indexed = listIndexedClasses(path);
+      if (indexed != null) {
+        for (IndexedClass type : indexed) {
+          if (!type.isDescribed() || test.mayMatch(type)) {
+            addIfMatching(test, type.getName().replace('.', '/') + ".class");
+          }
+        }
+        return this;
+      }
+      for (String child : VFS.getInstance().list(path)) {
         if (child.endsWith(".class")) {
           addIfMatching(test, child);
         }
@@ -259,6 +293,28 @@ public class ResolverUtil<T> {
     return this;
   }
 
+  /**
+   * Lists the classes of a package from the package indexes written by {@link PackageIndexProcessor}.
+   *
+   * @param path
+   *          the path of the package
+   * @return the classes, or null if the package has to be scanned
+   * @throws IOException
+   *           if an index cannot be read
+   */
+  private List<IndexedClass> listIndexedClasses(String path) throws IOException {
+    if (path == null) {
+      return null;
+    }
+    ClassLoader loader = getClassLoader();
+    PackageIndex index = packageIndexes.get(loader);
+    if (index == null) {
+      index = PackageIndex.load(loader);
+      packageIndexes.put(loader, index);
+    }
+    return index.isEmpty() ? null : index.list(loader, path);
+  }
+
   /**
    * Converts a Java package name to a path that can be looked up with a call to
    * {@link ClassLoader#getResources(String)}.
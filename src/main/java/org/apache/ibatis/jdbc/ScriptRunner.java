@@ -43,6 +43,8 @@ public class ScriptRunner {
 
   private static final Pattern DELIMITER_PATTERN = Pattern.compile("^\\s*((--)|(//))?\\s*(//)?\\s*@DELIMITER\\s+([^\\s]+)", Pattern.CASE_INSENSITIVE);
 
+  private static final Pattern DML_PATTERN = Pattern.compile("^\\s*(insert|update|delete|merge)\\s", Pattern.CASE_INSENSITIVE);
+
   private final Connection connection;
 
   private boolean stopOnError;
@@ -58,6 +60,16 @@ public class ScriptRunner {
   private String delimiter = DEFAULT_DELIMITER;
   private boolean fullLineDelimiter;
 
+  private int batchSize;
+  private int commitInterval;
+  private int progressInterval = 1000;
+  private ProgressListener progressListener;
+
+  private Statement batchStatement;
+  private int batchedCount;
+  private long lineCount;
+  private long statementCount;
+
   public ScriptRunner(Connection connection) {
     this.connection = connection;
   }
@@ -109,6 +121,52 @@ public class ScriptRunner {
     this.fullLineDelimiter = fullLineDelimiter;
   }
 
+  /**
+   * Sets the number of consecutive insert, update, delete and merge statements that are sent to the database in a
+   * single JDBC batch. Any other statement flushes the pending batch first. Ignored when the full script is sent.
+   *
+   * @param batchSize
+   *          the batch size, 0 or less to execute every statement on its own (default)
+   * @since 3.5.11
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets the number of statements after which the transaction is committed, so that long scripts do not keep a
+   * single huge transaction open. Has no effect in auto-commit mode.
+   *
+   * @param commitInterval
+   *          the number of statements between commits, 0 or less to commit only at the end (default)
+   * @since 3.5.11
+   */
+  public void setCommitInterval(int commitInterval) {
+    this.commitInterval = commitInterval;
+  }
+
+  /**
+   * Sets the number of statements between two calls of the progress listener. The default is 1000.
+   *
+   * @param progressInterval
+   *          the progress interval
+   * @since 3.5.11
+   */
+  public void setProgressInterval(int progressInterval) {
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Sets the listener notified of the progress of the script, every progress interval and once the script is done.
+   *
+   * @param progressListener
+   *          the progress listener
+   * @since 3.5.11
+   */
+  public void setProgressListener(ProgressListener progressListener) {
+    this.progressListener = progressListener;
+  }
+
   public void runScript(Reader reader) {
     setAutoCommit();
 
@@ -119,6 +177,7 @@ public class ScriptRunner {
         executeLineByLine(reader);
       }
     } finally {
+      closeBatchStatement();
       rollbackConnection();
     }
   }
@@ -148,10 +207,15 @@ public class ScriptRunner {
     try {
       BufferedReader lineReader = new BufferedReader(reader);
       String line;
+      lineCount = 0;
+      statementCount = 0;
       while ((line = lineReader.readLine()) != null) {
+        lineCount++;
         handleLine(command, line);
       }
+      executeBatch();
       commitConnection();
+      reportProgress();
       checkForMissingLineTerminator(command);
     } catch (Exception e) {
       String message = "Error executing: " + command + ".  Cause: " + e;
@@ -220,7 +284,7 @@ public class ScriptRunner {
       command.append(line, 0, line.lastIndexOf(delimiter));
       command.append(LINE_SEPARATOR);
       println(command);
-      executeStatement(command.toString());
+      executeCommand(command.toString());
       command.setLength(0);
     } else if (trimmedLine.length() > 0) {
       command.append(line);
@@ -237,6 +301,73 @@ public class ScriptRunner {
     return !fullLineDelimiter && trimmedLine.contains(delimiter) || fullLineDelimiter && trimmedLine.equals(delimiter);
   }
 
+  private void executeCommand(String command) throws SQLException {
+    if (batchSize > 0 && DML_PATTERN.matcher(command).find()) {
+      addBatch(command);
+    } else {
+      executeBatch();
+      executeStatement(command);
+    }
+    statementCount++;
+    if (commitInterval > 0 && statementCount % commitInterval == 0) {
+      executeBatch();
+      commitConnection();
+    }
+    if (progressInterval > 0 && statementCount % progressInterval == 0) {
+      reportProgress();
+    }
+  }
+
+  private void addBatch(String command) throws SQLException {
+    if (batchStatement == null) {
+      batchStatement = connection.createStatement();
+      batchStatement.setEscapeProcessing(escapeProcessing);
+    }
+    batchStatement.addBatch(removeCRs ? command.replace("\r\n", "\n") : command);
+    if (++batchedCount >= batchSize) {
+      executeBatch();
+    }
+  }
+
+  private void executeBatch() throws SQLException {
+    if (batchedCount == 0) {
+      return;
+    }
+    batchedCount = 0;
+    try {
+      batchStatement.executeBatch();
+      checkWarnings(batchStatement);
+    } catch (SQLWarning e) {
+      throw e;
+    } catch (SQLException e) {
+      if (stopOnError) {
+        throw e;
+      } else {
+        printlnError("Error executing batch.  Cause: " + e);
+      }
+    } finally {
+      batchStatement.clearBatch();
+    }
+  }
+
+  private void closeBatchStatement() {
+    if (batchStatement != null) {
+      try {
+        batchStatement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+      batchStatement = null;
+      batchedCount = 0;
+    }
+  }
+
+  private void reportProgress() {
+    if (progressListener != null) {
+      progressListener.onProgress(lineCount, statementCount);
+    }
+  }
+
   private void executeStatement(String command) throws SQLException {
     try (Statement statement = connection.createStatement()) {
       statement.setEscapeProcessing(escapeProcessing);
@@ -321,4 +452,24 @@ public class ScriptRunner {
     }
   }
 
+  /**
+   * Receives the progress of a script run line by line.
+   *
+   * @since 3.5.11
+   */
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Called every progress interval and once the script is done.
+     *
+     * @param lines
+     *          the number of lines read so far
+     * @param statements
+     *          the number of statements executed or batched so far
+     */
+    void onProgress(long lines, long statements);
+
+  }
+
 }
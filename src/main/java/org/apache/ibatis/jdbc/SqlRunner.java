@@ -22,12 +22,12 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.ibatis.executor.result.RowMap;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -220,12 +220,17 @@ public class SqlRunner {
         typeHandlers.add(typeHandlerRegistry.getTypeHandler(Object.class));
       }
     }
+    List<String> keys = new ArrayList<>(columns.size());
+    for (String name : columns) {
+      keys.add(name.toUpperCase(Locale.ENGLISH));
+    }
+    RowMap.Schema schema = new RowMap.Schema(keys);
     while (rs.next()) {
-      Map<String, Object> row = new HashMap<>();
+      Map<String, Object> row = new RowMap(schema);
       for (int i = 0, n = columns.size(); i < n; i++) {
         String name = columns.get(i);
         TypeHandler<?> handler = typeHandlers.get(i);
-        row.put(name.toUpperCase(Locale.ENGLISH), handler.getResult(rs, name));
+        row.put(keys.get(i), handler.getResult(rs, name));
       }
       list.add(row);
     }
@@ -61,6 +61,16 @@ public class BoundSql {
     return parameterObject;
   }
 
+  /**
+   * Returns whether any additional parameter has been set.
+   *
+   * @return true if there is at least one additional parameter
+   * @since 3.5.11
+   */
+  public boolean hasAdditionalParameters() {
+    return !additionalParameters.isEmpty();
+  }
+
   public boolean hasAdditionalParameter(String name) {
     String paramName = new PropertyTokenizer(name).getName();
     return additionalParameters.containsKey(paramName);
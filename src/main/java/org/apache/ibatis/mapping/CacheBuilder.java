@@ -27,9 +27,11 @@ import org.apache.ibatis.cache.CacheException;
 import org.apache.ibatis.cache.decorators.BlockingCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TableInvalidationCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -46,6 +48,9 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private boolean tableInvalidation;
+  private Long timeToLive;
+  private Long refreshAhead;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -84,6 +89,46 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Sets whether writes invalidate only the cached results that depend on the tables they modify. Ignored for blocking
+   * caches.
+   *
+   * @param tableInvalidation
+   *          the table invalidation
+   * @return the cache builder
+   * @since 3.5.11
+   */
+  public CacheBuilder tableInvalidation(boolean tableInvalidation) {
+    this.tableInvalidation = tableInvalidation;
+    return this;
+  }
+
+  /**
+   * Sets the time in milliseconds after which each entry expires. Ignored for custom caches.
+   *
+   * @param timeToLive
+   *          the time to live, null for no expiry
+   * @return the cache builder
+   * @since 3.5.11
+   */
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
+  /**
+   * Sets how long in milliseconds before its expiry an entry that is read is reloaded in the background.
+   *
+   * @param refreshAhead
+   *          the refresh ahead window, null to never refresh
+   * @return the cache builder
+   * @since 3.5.11
+   */
+  public CacheBuilder refreshAhead(Long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -103,6 +148,9 @@ public class CacheBuilder {
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
+    if (tableInvalidation && !(cache instanceof BlockingCache)) {
+      cache = new TableInvalidationCache(cache);
+    }
     return cache;
   }
 
@@ -130,6 +178,13 @@ public class CacheBuilder {
       }
       cache = new LoggingCache(cache);
       cache = new SynchronizedCache(cache);
+      if (timeToLive != null) {
+        cache = new RefreshAheadCache(cache);
+        ((RefreshAheadCache) cache).setTimeToLive(timeToLive);
+        if (refreshAhead != null) {
+          ((RefreshAheadCache) cache).setRefreshAhead(refreshAhead);
+        }
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
       }
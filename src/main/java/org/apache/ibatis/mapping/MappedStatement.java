@@ -18,6 +18,8 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -26,6 +28,7 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.ParameterBindingPlan;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -56,6 +59,10 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private boolean dirtySelect;
+  private String[] tables;
+  private RowCountStatistics rowCountStatistics;
+  private final ConcurrentMap<Class<?>, ParameterBindingPlan> parameterBindingPlans = new ConcurrentHashMap<>();
 
   MappedStatement() {
     // constructor disabled
@@ -174,6 +181,16 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder dirtySelect(boolean dirtySelect) {
+      mappedStatement.dirtySelect = dirtySelect;
+      return this;
+    }
+
+    public Builder tables(String tables) {
+      mappedStatement.tables = delimitedStringToArray(tables);
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -194,6 +211,9 @@ public final class MappedStatement {
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
+      if (mappedStatement.sqlCommandType == SqlCommandType.SELECT) {
+        mappedStatement.rowCountStatistics = new RowCountStatistics();
+      }
       return mappedStatement;
     }
   }
@@ -290,6 +310,40 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  public boolean isDirtySelect() {
+    return dirtySelect;
+  }
+
+  /**
+   * Gets the tables declared as read by a select or modified by the other statements.
+   *
+   * @return the table names or null if not declared
+   * @since 3.5.11
+   */
+  public String[] getTables() {
+    return tables;
+  }
+
+  /**
+   * Gets the distribution of the number of rows returned by the executions of this statement.
+   *
+   * @return the row count statistics, or null if this is not a select statement
+   * @since 3.5.11
+   */
+  public RowCountStatistics getRowCountStatistics() {
+    return rowCountStatistics;
+  }
+
+  /**
+   * Gets the parameter binding plans compiled for this statement, keyed by parameter type.
+   *
+   * @return the binding plans
+   * @since 3.5.11
+   */
+  public ConcurrentMap<Class<?>, ParameterBindingPlan> getParameterBindingPlans() {
+    return parameterBindingPlans;
+  }
+
   /**
    * Gets the resul sets.
    *
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+/**
+ * Running distribution of the number of rows returned by the executions of a select statement, used to pick an
+ * adaptive fetch size.
+ * <p>
+ * Row counts are kept in power of two buckets. Once a window of samples has been recorded all the buckets are halved,
+ * so the distribution follows changes in the data while remembering the typical result size.
+ *
+ * @since 3.5.11
+ */
+public final class RowCountStatistics {
+
+  private static final int WINDOW = 128;
+  private static final int PERCENTILE = 90;
+
+  private final int[] buckets = new int[Integer.SIZE + 1];
+  private int samples;
+
+  /**
+   * Records the number of rows read by one execution.
+   *
+   * @param rows
+   *          the row count
+   */
+  public synchronized void record(int rows) {
+    if (samples >= WINDOW) {
+      samples = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] >>= 1;
+        samples += buckets[i];
+      }
+    }
+    buckets[Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(rows, 0))]++;
+    samples++;
+  }
+
+  /**
+   * Suggests a fetch size large enough to read the 90th percentile of the observed results in a single round trip.
+   *
+   * @param min
+   *          the smallest fetch size to return
+   * @param max
+   *          the largest fetch size to return
+   * @return the fetch size, or null if no execution has been recorded yet
+   */
+  public synchronized Integer suggestFetchSize(int min, int max) {
+    if (samples == 0) {
+      return null;
+    }
+    int threshold = (samples * PERCENTILE + 99) / 100;
+    int cumulated = 0;
+    int bucket = 0;
+    while (cumulated + buckets[bucket] < threshold) {
+      cumulated += buckets[bucket++];
+    }
+    // rows in bucket b are below 2^b, one more row lets the driver see the end of the result in the same trip
+    long rows = bucket >= Integer.SIZE - 1 ? Integer.MAX_VALUE : 1L << bucket;
+    return (int) Math.max(min, Math.min(max, rows));
+  }
+
+  public synchronized int getSamples() {
+    return samples;
+  }
+
+}
@@ -19,8 +19,13 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
@@ -46,10 +51,17 @@ import org.xml.sax.SAXParseException;
  */
 public class XPathParser {
 
+  /**
+   * Unions of element names separated by slashes, optionally starting with a slash.
+   */
+  private static final Pattern ELEMENT_PATH = Pattern
+      .compile("(/?[A-Za-z_][\\w.-]*(/[A-Za-z_][\\w.-]*)*)(\\|/?[A-Za-z_][\\w.-]*(/[A-Za-z_][\\w.-]*)*)*");
+
   private final Document document;
   private boolean validation;
   private EntityResolver entityResolver;
   private Properties variables;
+  /** Created when the first expression that is not an element path is evaluated. */
   private XPath xpath;
 
   public XPathParser(String xml) {
@@ -200,6 +212,12 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    if (root instanceof Node && isElementPath(expression)) {
+      for (Node node : selectElements((Node) root, expression)) {
+        xnodes.add(new XNode(this, node, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -212,15 +230,77 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    Node node;
+    if (root instanceof Node && isElementPath(expression)) {
+      List<Node> nodes = selectElements((Node) root, expression);
+      node = nodes.isEmpty() ? null : nodes.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
     return new XNode(this, node, variables);
   }
 
+  /**
+   * Returns whether an expression is a union of element paths such as {@code /mapper/sql} or
+   * {@code select|insert|update|delete}, which are resolved by walking the document instead of evaluating XPath.
+   */
+  private static boolean isElementPath(String expression) {
+    return ELEMENT_PATH.matcher(expression).matches();
+  }
+
+  /**
+   * Selects the elements matched by an element path, in document order.
+   */
+  private static List<Node> selectElements(Node root, String expression) {
+    String[] paths = expression.split("\\|");
+    List<Node> result = new ArrayList<>();
+    if (paths.length > 1 && expression.indexOf('/') < 0) {
+      // children with any of the names, in one pass
+      addChildElements(root, new HashSet<>(Arrays.asList(paths)), result);
+      return result;
+    }
+    for (String path : paths) {
+      List<Node> nodes = Collections.singletonList(path.charAt(0) == '/' ? documentOf(root) : root);
+      for (String step : path.substring(path.charAt(0) == '/' ? 1 : 0).split("/")) {
+        Set<String> names = Collections.singleton(step);
+        List<Node> children = new ArrayList<>();
+        for (Node node : nodes) {
+          addChildElements(node, names, children);
+        }
+        nodes = children;
+      }
+      for (Node node : nodes) {
+        if (!result.contains(node)) {
+          result.add(node);
+        }
+      }
+    }
+    if (paths.length > 1) {
+      result.sort((a, b) -> (a.compareDocumentPosition(b) & Node.DOCUMENT_POSITION_FOLLOWING) != 0 ? -1 : 1);
+    }
+    return result;
+  }
+
+  private static Node documentOf(Node node) {
+    return node.getNodeType() == Node.DOCUMENT_NODE ? node : node.getOwnerDocument();
+  }
+
+  private static void addChildElements(Node parent, Set<String> names, List<Node> result) {
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE && names.contains(child.getNodeName())) {
+        result.add(child);
+      }
+    }
+  }
+
   private Object evaluate(String expression, Object root, QName returnType) {
     try {
+      if (xpath == null) {
+        xpath = XPathFactory.newInstance().newXPath();
+      }
       return xpath.evaluate(expression, root, returnType);
     } catch (Exception e) {
       throw new BuilderException("Error evaluating XPath.  Cause: " + e, e);
@@ -268,8 +348,6 @@ public class XPathParser {
     this.validation = validation;
     this.entityResolver = entityResolver;
     this.variables = variables;
-    XPathFactory factory = XPathFactory.newInstance();
-    this.xpath = factory.newXPath();
   }
 
 }
@@ -15,13 +15,19 @@
  */
 package org.apache.ibatis.plugin;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.util.MapUtil;
@@ -31,25 +37,31 @@ import org.apache.ibatis.util.MapUtil;
  */
 public class Plugin implements InvocationHandler {
 
+  /**
+   * The signatures of each interceptor class, read once from its {@link Intercepts} annotation.
+   */
+  private static final ClassValue<Signatures> signatures = new ClassValue<Signatures>() {
+    @Override
+    protected Signatures computeValue(Class<?> type) {
+      return new Signatures(getSignatureMap(type));
+    }
+  };
+
   private final Object target;
   private final Interceptor interceptor;
-  private final Map<Class<?>, Set<Method>> signatureMap;
+  private final Set<Method> methods;
 
-  private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+  private Plugin(Object target, Interceptor interceptor, Set<Method> methods) {
     this.target = target;
     this.interceptor = interceptor;
-    this.signatureMap = signatureMap;
+    this.methods = methods;
   }
 
   public static Object wrap(Object target, Interceptor interceptor) {
-    Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
-    Class<?> type = target.getClass();
-    Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
-    if (interfaces.length > 0) {
-      return Proxy.newProxyInstance(
-          type.getClassLoader(),
-          interfaces,
-          new Plugin(target, interceptor, signatureMap));
+    Signatures interceptorSignatures = signatures.get(interceptor.getClass());
+    ProxyType proxyType = interceptorSignatures.getProxyType(target.getClass());
+    if (proxyType != null) {
+      return proxyType.newInstance(new Plugin(target, interceptor, interceptorSignatures.methods));
     }
     return target;
   }
@@ -57,8 +69,7 @@ public class Plugin implements InvocationHandler {
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     try {
-      Set<Method> methods = signatureMap.get(method.getDeclaringClass());
-      if (methods != null && methods.contains(method)) {
+      if (methods.contains(method)) {
         return interceptor.intercept(new Invocation(target, method, args));
       }
       return method.invoke(target, args);
@@ -67,11 +78,11 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-    Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+  private static Map<Class<?>, Set<Method>> getSignatureMap(Class<?> interceptorType) {
+    Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
-      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
     }
     Signature[] sigs = interceptsAnnotation.value();
     Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
@@ -100,4 +111,73 @@ public class Plugin implements InvocationHandler {
     return interfaces.toArray(new Class<?>[0]);
   }
 
+  /**
+   * The methods intercepted by an interceptor class and the proxy types it needs for the target classes it has
+   * wrapped so far.
+   */
+  private static final class Signatures {
+
+    private final Map<Class<?>, Set<Method>> signatureMap;
+    private final Set<Method> methods;
+    private final ConcurrentMap<Class<?>, Optional<ProxyType>> proxyTypes = new ConcurrentHashMap<>();
+
+    Signatures(Map<Class<?>, Set<Method>> signatureMap) {
+      this.signatureMap = signatureMap;
+      // a method is only intercepted when it is declared by the type of its signature
+      Set<Method> methods = new HashSet<>();
+      for (Map.Entry<Class<?>, Set<Method>> entry : signatureMap.entrySet()) {
+        for (Method method : entry.getValue()) {
+          if (method.getDeclaringClass().equals(entry.getKey())) {
+            methods.add(method);
+          }
+        }
+      }
+      this.methods = methods;
+    }
+
+    ProxyType getProxyType(Class<?> type) {
+      return MapUtil.computeIfAbsent(proxyTypes, type, k -> {
+        Class<?>[] interfaces = getAllInterfaces(k, signatureMap);
+        return interfaces.length > 0 ? Optional.of(new ProxyType(k.getClassLoader(), interfaces)) : Optional.empty();
+      }).orElse(null);
+    }
+  }
+
+  /**
+   * Creates the proxies of a target class. The constructor of the proxy class is kept after the first proxy so the
+   * following ones skip the interface checks of {@link Proxy#newProxyInstance}.
+   */
+  private static final class ProxyType {
+
+    private final ClassLoader classLoader;
+    private final Class<?>[] interfaces;
+    private volatile Constructor<?> constructor;
+
+    ProxyType(ClassLoader classLoader, Class<?>[] interfaces) {
+      this.classLoader = classLoader;
+      this.interfaces = interfaces;
+    }
+
+    Object newInstance(InvocationHandler handler) {
+      Constructor<?> proxyConstructor = constructor;
+      if (proxyConstructor != null) {
+        try {
+          return proxyConstructor.newInstance(handler);
+        } catch (ReflectiveOperationException e) {
+          throw new PluginException("Could not create proxy of " + Arrays.toString(interfaces) + ". Cause: " + e, e);
+        }
+      }
+      Object proxy = Proxy.newProxyInstance(classLoader, interfaces, handler);
+      Class<?> proxyClass = proxy.getClass();
+      if (Modifier.isPublic(proxyClass.getModifiers())) {
+        try {
+          constructor = proxyClass.getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+          // keep using Proxy.newProxyInstance
+        }
+      }
+      return proxy;
+    }
+  }
+
 }
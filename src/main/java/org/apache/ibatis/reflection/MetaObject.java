@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -110,7 +110,13 @@ public class MetaObject {
   }
 
   public Object getValue(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
+    if (name.indexOf('.') > -1 && PropertyPath.isBeanOrMap(originalObject, objectWrapperFactory)) {
+      return PropertyPath.compile(name).getValue(this);
+    }
+    return getValue(new PropertyTokenizer(name));
+  }
+
+  Object getValue(PropertyTokenizer prop) {
     if (prop.hasNext()) {
       MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
       if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -124,7 +130,14 @@ public class MetaObject {
   }
 
   public void setValue(String name, Object value) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
+    if (name.indexOf('.') > -1 && PropertyPath.isBeanOrMap(originalObject, objectWrapperFactory)) {
+      PropertyPath.compile(name).setValue(this, value);
+    } else {
+      setValue(new PropertyTokenizer(name), name, value);
+    }
+  }
+
+  void setValue(PropertyTokenizer prop, String name, Object value) {
     if (prop.hasNext()) {
       MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
       if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -19,6 +19,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +27,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.FixedParamMap;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -54,6 +56,15 @@ public class ParamNameResolver {
 
   private boolean hasParamAnnotation;
 
+  /**
+   * The layouts of the compact parameter maps, or null when they are disabled. A single parameter without
+   * {@link Param} only gets a map when its argument is a collection or an array, with the layout matching the argument.
+   */
+  private final FixedParamMap.Layout layout;
+  private final FixedParamMap.Layout listLayout;
+  private final FixedParamMap.Layout collectionLayout;
+  private final FixedParamMap.Layout arrayLayout;
+
   public ParamNameResolver(Configuration config, Method method) {
     this.useActualParamName = config.isUseActualParamName();
     final Class<?>[] paramTypes = method.getParameterTypes();
@@ -88,6 +99,40 @@ public class ParamNameResolver {
       map.put(paramIndex, name);
     }
     names = Collections.unmodifiableSortedMap(map);
+    if (!config.isCompactParamMaps() || names.isEmpty()) {
+      layout = listLayout = collectionLayout = arrayLayout = null;
+    } else if (!hasParamAnnotation && names.size() == 1) {
+      layout = null;
+      int argIndex = names.firstKey();
+      String actualParamName = useActualParamName ? names.get(0) : null;
+      listLayout = singleParamLayout(argIndex, actualParamName, "collection", "list");
+      collectionLayout = singleParamLayout(argIndex, actualParamName, "collection");
+      arrayLayout = singleParamLayout(argIndex, actualParamName, "array");
+    } else {
+      Map<String, Integer> argIndexes = new LinkedHashMap<>();
+      int i = 0;
+      for (Map.Entry<Integer, String> entry : names.entrySet()) {
+        argIndexes.put(entry.getValue(), entry.getKey());
+        final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
+        if (!names.containsValue(genericParamName)) {
+          argIndexes.put(genericParamName, entry.getKey());
+        }
+        i++;
+      }
+      layout = new FixedParamMap.Layout(argIndexes);
+      listLayout = collectionLayout = arrayLayout = null;
+    }
+  }
+
+  private static FixedParamMap.Layout singleParamLayout(int argIndex, String actualParamName, String... keys) {
+    Map<String, Integer> argIndexes = new LinkedHashMap<>();
+    for (String key : keys) {
+      argIndexes.put(key, argIndex);
+    }
+    if (actualParamName != null) {
+      argIndexes.put(actualParamName, argIndex);
+    }
+    return new FixedParamMap.Layout(argIndexes);
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -112,7 +157,7 @@ public class ParamNameResolver {
    * A single non-special parameter is returned without a name.
    * Multiple parameters are named using the naming rule.
    * In addition to the default names, this method also adds the generic names (param1, param2,
-   * ...).
+   * ...). When compact parameter maps are enabled, the arguments are returned in a {@link FixedParamMap} instead.
    * </p>
    *
    * @param args
@@ -125,7 +170,12 @@ public class ParamNameResolver {
       return null;
     } else if (!hasParamAnnotation && paramCount == 1) {
       Object value = args[names.firstKey()];
+      if (listLayout != null) {
+        return wrapToFixedMapIfCollection(value, args);
+      }
       return wrapToMapIfCollection(value, useActualParamName ? names.get(0) : null);
+    } else if (layout != null) {
+      return new FixedParamMap(layout, args);
     } else {
       final Map<String, Object> param = new ParamMap<>();
       int i = 0;
@@ -143,6 +193,17 @@ public class ParamNameResolver {
     }
   }
 
+  private Object wrapToFixedMapIfCollection(Object object, Object[] args) {
+    if (object instanceof List) {
+      return new FixedParamMap(listLayout, args);
+    } else if (object instanceof Collection) {
+      return new FixedParamMap(collectionLayout, args);
+    } else if (object != null && object.getClass().isArray()) {
+      return new FixedParamMap(arrayLayout, args);
+    }
+    return object;
+  }
+
   /**
    * Wrap to a {@link ParamMap} if object is {@link Collection} or array.
    *
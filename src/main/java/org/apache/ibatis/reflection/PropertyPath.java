@@ -0,0 +1,250 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+
+/**
+ * A nested property path (e.g. {@code order.items[0].name}) tokenized once and evaluated by {@link MetaObject}
+ * without creating a {@link MetaObject} and an {@link ObjectWrapper} for each segment.
+ * <p>
+ * Only beans and maps are walked directly. Each segment remembers the getter and setter it resolved for the last
+ * class it has seen, so a path that is evaluated against the same classes again skips the reflector lookups. Whenever
+ * a segment holds anything else (a collection, an object that has a custom wrapper, a null value to instantiate or a
+ * property the class does not have), the rest of the path is handed over to {@link MetaObject}, so the results and
+ * the errors are the same as before.
+ *
+ * @since 3.5.11
+ */
+final class PropertyPath {
+
+  private static final int MAX_CACHED_PATHS = 4096;
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+  private static final Map<String, PropertyPath> paths = Collections.synchronizedMap(
+      new LinkedHashMap<String, PropertyPath>(64, .75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PropertyPath> eldest) {
+          return size() > MAX_CACHED_PATHS;
+        }
+      });
+
+  private final String[] names;
+  private final String[] indexes;
+  private final String[] subpaths;
+  private final Accessor[] getters;
+  private volatile Accessor setter;
+
+  private PropertyPath(String path) {
+    List<PropertyTokenizer> tokens = new ArrayList<>();
+    List<String> subpathList = new ArrayList<>();
+    String subpath = path;
+    while (subpath != null) {
+      PropertyTokenizer prop = new PropertyTokenizer(subpath);
+      tokens.add(prop);
+      subpathList.add(subpath);
+      subpath = prop.getChildren();
+    }
+    int size = tokens.size();
+    this.names = new String[size];
+    this.indexes = new String[size];
+    this.subpaths = subpathList.toArray(new String[size]);
+    this.getters = new Accessor[size];
+    for (int i = 0; i < size; i++) {
+      names[i] = tokens.get(i).getName();
+      indexes[i] = tokens.get(i).getIndex();
+    }
+  }
+
+  /**
+   * Returns the compiled form of a path. The least recently used paths are evicted once a fixed number is cached, so
+   * names that never repeat (like the ones of foreach items) do not keep the others out.
+   */
+  static PropertyPath compile(String path) {
+    PropertyPath propertyPath = paths.get(path);
+    if (propertyPath == null) {
+      propertyPath = new PropertyPath(path);
+      paths.put(path, propertyPath);
+    }
+    return propertyPath;
+  }
+
+  Object getValue(MetaObject metaObject) {
+    Object object = metaObject.getOriginalObject();
+    for (int i = 0; i < names.length; i++) {
+      if (i > 0 && !isBeanOrMap(object, metaObject.getObjectWrapperFactory())) {
+        return fallbackGet(i, object, metaObject);
+      }
+      Object value = get(i, object, metaObject);
+      if (value == Fallback.INSTANCE) {
+        return fallbackGet(i, object, metaObject);
+      }
+      if (value == null) {
+        return null;
+      }
+      object = value;
+    }
+    return object;
+  }
+
+  void setValue(MetaObject metaObject, Object value) {
+    Object object = metaObject.getOriginalObject();
+    int last = names.length - 1;
+    for (int i = 0; i < last; i++) {
+      if (i > 0 && !isBeanOrMap(object, metaObject.getObjectWrapperFactory())) {
+        fallbackSet(i, object, value, metaObject);
+        return;
+      }
+      Object child = get(i, object, metaObject);
+      if (child == null || child == Fallback.INSTANCE) {
+        // let MetaObject instantiate the missing value or report the error
+        fallbackSet(i, object, value, metaObject);
+        return;
+      }
+      object = child;
+    }
+    if (!isBeanOrMap(object, metaObject.getObjectWrapperFactory()) || !set(last, object, value, metaObject)) {
+      fallbackSet(last, object, value, metaObject);
+    }
+  }
+
+  private Object get(int i, Object object, MetaObject metaObject) {
+    Object collection = indexes[i] != null && names[i].isEmpty() ? object : getProperty(i, object, metaObject);
+    if (indexes[i] == null || collection == Fallback.INSTANCE) {
+      return collection;
+    }
+    if (collection instanceof Map) {
+      return ((Map<?, ?>) collection).get(indexes[i]);
+    } else if (collection instanceof List) {
+      return ((List<?>) collection).get(Integer.parseInt(indexes[i]));
+    } else if (collection instanceof Object[]) {
+      return ((Object[]) collection)[Integer.parseInt(indexes[i])];
+    }
+    return Fallback.INSTANCE;
+  }
+
+  private Object getProperty(int i, Object object, MetaObject metaObject) {
+    if (object instanceof Map) {
+      return ((Map<?, ?>) object).get(names[i]);
+    }
+    Accessor getter = getters[i];
+    if (getter == null || !getter.matches(object.getClass(), metaObject.getReflectorFactory())) {
+      Reflector reflector = metaObject.getReflectorFactory().findForClass(object.getClass());
+      if (!reflector.hasGetter(names[i])) {
+        return Fallback.INSTANCE;
+      }
+      getter = new Accessor(object.getClass(), metaObject.getReflectorFactory(), reflector.getGetInvoker(names[i]));
+      getters[i] = getter;
+    }
+    try {
+      return getter.invoker.invoke(object, NO_ARGUMENTS);
+    } catch (Throwable t) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(t);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ReflectionException("Could not get property '" + names[i] + "' from " + object.getClass() + ".  Cause: " + cause.toString(), cause);
+    }
+  }
+
+  private boolean set(int i, Object object, Object value, MetaObject metaObject) {
+    if (indexes[i] != null) {
+      return false;
+    }
+    if (object instanceof Map) {
+      @SuppressWarnings("unchecked")
+      Map<String, Object> map = (Map<String, Object>) object;
+      map.put(names[i], value);
+      return true;
+    }
+    Accessor accessor = setter;
+    if (accessor == null || !accessor.matches(object.getClass(), metaObject.getReflectorFactory())) {
+      Reflector reflector = metaObject.getReflectorFactory().findForClass(object.getClass());
+      if (!reflector.hasSetter(names[i])) {
+        return false;
+      }
+      accessor = new Accessor(object.getClass(), metaObject.getReflectorFactory(), reflector.getSetInvoker(names[i]));
+      setter = accessor;
+    }
+    try {
+      accessor.invoker.invoke(object, new Object[] { value });
+    } catch (Throwable t) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(t);
+      throw new ReflectionException("Could not set property '" + names[i] + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + cause.toString(), cause);
+    }
+    return true;
+  }
+
+  /**
+   * Tells whether {@link MetaObject} would wrap the object with a {@code BeanWrapper} or a {@code MapWrapper}.
+   */
+  static boolean isBeanOrMap(Object object, ObjectWrapperFactory objectWrapperFactory) {
+    return !(object instanceof ObjectWrapper) && !(object instanceof Collection)
+        && !objectWrapperFactory.hasWrapperFor(object);
+  }
+
+  /**
+   * Evaluates the rest of the path from the given segment the way {@link MetaObject} always did. The first segment is
+   * resolved through the object wrapper, so this never comes back to the same segment.
+   */
+  private Object fallbackGet(int i, Object object, MetaObject metaObject) {
+    return metaObjectFor(object, metaObject).getValue(new PropertyTokenizer(subpaths[i]));
+  }
+
+  private void fallbackSet(int i, Object object, Object value, MetaObject metaObject) {
+    metaObjectFor(object, metaObject).setValue(new PropertyTokenizer(subpaths[i]), subpaths[i], value);
+  }
+
+  private static MetaObject metaObjectFor(Object object, MetaObject metaObject) {
+    if (object == metaObject.getOriginalObject()) {
+      return metaObject;
+    }
+    return MetaObject.forObject(object, metaObject.getObjectFactory(), metaObject.getObjectWrapperFactory(),
+        metaObject.getReflectorFactory());
+  }
+
+  private static final class Accessor {
+    private final Class<?> type;
+    private final ReflectorFactory reflectorFactory;
+    private final Invoker invoker;
+
+    Accessor(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+
+    boolean matches(Class<?> type, ReflectorFactory reflectorFactory) {
+      return this.type == type && this.reflectorFactory == reflectorFactory;
+    }
+  }
+
+  private enum Fallback {
+    INSTANCE
+  }
+
+}
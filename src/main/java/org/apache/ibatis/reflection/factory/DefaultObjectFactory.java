@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.apache.ibatis.reflection.factory;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.ibatis.reflection.ReflectionException;
@@ -40,6 +42,17 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
 
   private static final long serialVersionUID = -8855120656740914948L;
 
+  /**
+   * Constructors already looked up, per class and constructor argument types. Kept in a {@link ClassValue} so that
+   * the entries go away with the class and every factory instance shares them.
+   */
+  private static final ClassValue<Map<List<Class<?>>, Constructor<?>>> constructors = new ClassValue<Map<List<Class<?>>, Constructor<?>>>() {
+    @Override
+    protected Map<List<Class<?>>, Constructor<?>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   @Override
   public <T> T create(Class<T> type) {
     return create(type, null, null);
@@ -57,7 +70,7 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     try {
       Constructor<T> constructor;
       if (constructorArgTypes == null || constructorArgs == null) {
-        constructor = type.getDeclaredConstructor();
+        constructor = getConstructor(type, Collections.emptyList());
         try {
           return constructor.newInstance();
         } catch (IllegalAccessException e) {
@@ -69,7 +82,7 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
           }
         }
       }
-      constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[0]));
+      constructor = getConstructor(type, constructorArgTypes);
       try {
         return constructor.newInstance(constructorArgs.toArray(new Object[0]));
       } catch (IllegalAccessException e) {
@@ -89,6 +102,27 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     }
   }
 
+  /**
+   * Returns the declared constructor that takes the given argument types. The constructor is looked up only once per
+   * class and signature, and as the same instance is returned afterwards, it has to be made accessible only once too.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> Constructor<T> getConstructor(Class<T> type, List<Class<?>> constructorArgTypes)
+      throws NoSuchMethodException {
+    Map<List<Class<?>>, Constructor<?>> typeConstructors = constructors.get(type);
+    Constructor<?> constructor = typeConstructors.get(constructorArgTypes);
+    if (constructor == null) {
+      Class<?>[] parameterTypes = constructorArgTypes.toArray(new Class[0]);
+      constructor = type.getDeclaredConstructor(parameterTypes);
+      Constructor<?> existing = typeConstructors
+          .putIfAbsent(Collections.unmodifiableList(Arrays.asList(parameterTypes)), constructor);
+      if (existing != null) {
+        constructor = existing;
+      }
+    }
+    return (Constructor<T>) constructor;
+  }
+
   protected Class<?> resolveInterface(Class<?> type) {
     Class<?> classToCreate;
     if (type == List.class || type == Collection.class || type == Iterable.class) {
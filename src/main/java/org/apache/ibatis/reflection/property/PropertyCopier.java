@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2021 the original author or authors.
+ *    Copyright 2009-2022 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 package org.apache.ibatis.reflection.property;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.ibatis.reflection.Reflector;
 
@@ -24,31 +27,46 @@ import org.apache.ibatis.reflection.Reflector;
  */
 public final class PropertyCopier {
 
+  /**
+   * The declared instance fields of a class and its superclasses. The same field instances are used for every copy, so a field
+   * that had to be made accessible stays accessible.
+   */
+  private static final ClassValue<Field[]> fields = new ClassValue<Field[]>() {
+    @Override
+    protected Field[] computeValue(Class<?> type) {
+      List<Field> allFields = new ArrayList<>();
+      for (Class<?> parent = type; parent != null; parent = parent.getSuperclass()) {
+        for (Field field : parent.getDeclaredFields()) {
+          // static fields are shared by both beans
+          if (!Modifier.isStatic(field.getModifiers())) {
+            allFields.add(field);
+          }
+        }
+      }
+      return allFields.toArray(new Field[0]);
+    }
+  };
+
   private PropertyCopier() {
     // Prevent Instantiation of Static Class
   }
 
   public static void copyBeanProperties(Class<?> type, Object sourceBean, Object destinationBean) {
-    Class<?> parent = type;
-    while (parent != null) {
-      final Field[] fields = parent.getDeclaredFields();
-      for (Field field : fields) {
+    for (Field field : fields.get(type)) {
+      try {
         try {
-          try {
+          field.set(destinationBean, field.get(sourceBean));
+        } catch (IllegalAccessException e) {
+          if (Reflector.canControlMemberAccessible()) {
+            field.setAccessible(true);
             field.set(destinationBean, field.get(sourceBean));
-          } catch (IllegalAccessException e) {
-            if (Reflector.canControlMemberAccessible()) {
-              field.setAccessible(true);
-              field.set(destinationBean, field.get(sourceBean));
-            } else {
-              throw e;
-            }
+          } else {
+            throw e;
           }
-        } catch (Exception e) {
-          // Nothing useful to do, will only fail on final fields, which will be ignored.
         }
+      } catch (Exception e) {
+        // Nothing useful to do, will only fail on final fields, which will be ignored.
       }
-      parent = parent.getSuperclass();
     }
   }
 
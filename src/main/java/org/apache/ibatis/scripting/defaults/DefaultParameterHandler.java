@@ -18,19 +18,21 @@ package org.apache.ibatis.scripting.defaults;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * @author Clinton Begin
@@ -38,8 +40,6 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  */
 public class DefaultParameterHandler implements ParameterHandler {
 
-  private final TypeHandlerRegistry typeHandlerRegistry;
-
   private final MappedStatement mappedStatement;
   private final Object parameterObject;
   private final BoundSql boundSql;
@@ -48,7 +48,6 @@ public class DefaultParameterHandler implements ParameterHandler {
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
     this.configuration = mappedStatement.getConfiguration();
-    this.typeHandlerRegistry = mappedStatement.getConfiguration().getTypeHandlerRegistry();
     this.parameterObject = parameterObject;
     this.boundSql = boundSql;
   }
@@ -63,20 +62,21 @@ public class DefaultParameterHandler implements ParameterHandler {
     ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      ParameterBindingPlan plan = parameterObject == null ? null : getBindingPlan(parameterMappings);
+      MetaObject metaObject = plan != null && plan.isMetaObjectRequired() ? configuration.newMetaObject(parameterObject)
+          : null;
+      boolean hasAdditionalParameters = boundSql.hasAdditionalParameters();
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         if (parameterMapping.getMode() != ParameterMode.OUT) {
           Object value;
           String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+          if (hasAdditionalParameters && boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
             value = boundSql.getAdditionalParameter(propertyName);
           } else if (parameterObject == null) {
             value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            value = parameterObject;
           } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
+            value = plan.getValue(i, parameterObject, metaObject);
           }
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
           JdbcType jdbcType = parameterMapping.getJdbcType();
@@ -93,4 +93,23 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /**
+   * Gets the binding plan for the parameter mappings and the type of the parameter object. Plans are kept on the
+   * mapped statement when its SQL is static, as its parameter mappings are then the same on every execution.
+   */
+  private ParameterBindingPlan getBindingPlan(List<ParameterMapping> parameterMappings) {
+    Class<?> parameterType = parameterObject.getClass();
+    Map<Class<?>, ParameterBindingPlan> plans = mappedStatement.getParameterBindingPlans();
+    SqlSource sqlSource = mappedStatement.getSqlSource();
+    if (plans == null || !(sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource)) {
+      return new ParameterBindingPlan(configuration, parameterMappings, parameterType);
+    }
+    ParameterBindingPlan plan = plans.get(parameterType);
+    if (plan == null || !plan.isFor(parameterMappings)) {
+      plan = new ParameterBindingPlan(configuration, parameterMappings, parameterType);
+      plans.put(parameterType, plan);
+    }
+    return plan;
+  }
+
 }
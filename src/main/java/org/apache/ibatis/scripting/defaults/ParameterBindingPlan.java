@@ -0,0 +1,154 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Resolves once how the value of each parameter mapping of a statement is read from a parameter object of a given
+ * type, so that binding the parameters of an execution only has to walk an array of accessors.
+ * <p>
+ * The parameter object itself is bound when its type has a type handler, map entries and bean getters are read
+ * directly and any other property (nested paths, indexed properties or custom object wrappers) is read through a
+ * {@link MetaObject} that is created once per execution.
+ *
+ * @since 3.5.11
+ */
+public final class ParameterBindingPlan {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final List<ParameterMapping> parameterMappings;
+  private final Accessor[] accessors;
+  private final boolean metaObjectRequired;
+
+  ParameterBindingPlan(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    this.parameterMappings = parameterMappings;
+    this.accessors = new Accessor[parameterMappings.size()];
+    boolean simple = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+    boolean wrapped = ObjectWrapper.class.isAssignableFrom(parameterType)
+        || !DefaultObjectWrapperFactory.class.equals(configuration.getObjectWrapperFactory().getClass());
+    Reflector reflector = simple || wrapped || Map.class.isAssignableFrom(parameterType)
+        || Collection.class.isAssignableFrom(parameterType) ? null
+            : configuration.getReflectorFactory().findForClass(parameterType);
+    boolean metaObjectRequired = false;
+    for (int i = 0; i < accessors.length; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      String property = parameterMapping.getProperty();
+      boolean plainName = property.indexOf('.') < 0 && property.indexOf('[') < 0;
+      if (simple) {
+        accessors[i] = new Accessor(Accessor.PARAMETER, property, null);
+      } else if (!wrapped && plainName && Map.class.isAssignableFrom(parameterType)) {
+        accessors[i] = new Accessor(Accessor.MAP_ENTRY, property, null);
+      } else if (reflector != null && plainName && reflector.hasGetter(property)) {
+        accessors[i] = new Accessor(Accessor.GETTER, property, reflector.getGetInvoker(property));
+      } else {
+        accessors[i] = new Accessor(Accessor.META_OBJECT, property, null);
+        metaObjectRequired = true;
+      }
+    }
+    this.metaObjectRequired = metaObjectRequired;
+  }
+
+  /**
+   * Returns whether this plan was compiled for the given parameter mappings.
+   */
+  boolean isFor(List<ParameterMapping> parameterMappings) {
+    return this.parameterMappings == parameterMappings;
+  }
+
+  /**
+   * Returns whether {@link #getValue} needs a meta object of the parameter object.
+   */
+  boolean isMetaObjectRequired() {
+    return metaObjectRequired;
+  }
+
+  /**
+   * Reads the value of a parameter mapping.
+   *
+   * @param index
+   *          the index of the parameter mapping, which must not be an OUT parameter
+   * @param parameterObject
+   *          the non null parameter object
+   * @param metaObject
+   *          the meta object of the parameter object, only used when {@link #isMetaObjectRequired()}
+   * @return the value
+   */
+  Object getValue(int index, Object parameterObject, MetaObject metaObject) {
+    Accessor accessor = accessors[index];
+    switch (accessor.kind) {
+      case Accessor.PARAMETER:
+        return parameterObject;
+      case Accessor.MAP_ENTRY:
+        return ((Map<?, ?>) parameterObject).get(accessor.property);
+      case Accessor.GETTER:
+        return invokeGetter(accessor, parameterObject);
+      default:
+        return metaObject.getValue(accessor.property);
+    }
+  }
+
+  private static Object invokeGetter(Accessor accessor, Object parameterObject) {
+    try {
+      try {
+        return accessor.getter.invoke(parameterObject, NO_ARGUMENTS);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not get property '" + accessor.property + "' from "
+          + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+    }
+  }
+
+  private static final class Accessor {
+
+    static final int PARAMETER = 0;
+    static final int MAP_ENTRY = 1;
+    static final int GETTER = 2;
+    static final int META_OBJECT = 3;
+
+    private final int kind;
+    private final String property;
+    private final Invoker getter;
+
+    Accessor(int kind, String property, Invoker getter) {
+      this.kind = kind;
+      this.property = property;
+      this.getter = getter;
+    }
+  }
+
+}
@@ -25,7 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
@@ -38,7 +40,9 @@ import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -72,6 +76,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
@@ -94,6 +99,7 @@ import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeAliasRegistry;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.util.MapUtil;
 
 /**
  * @author Clinton Begin
@@ -112,20 +118,32 @@ public class Configuration {
   protected boolean cacheEnabled = true;
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
+  protected boolean compactParamMaps;
+  protected int providerSqlCacheSize = 64;
+  protected boolean compactMetadata;
   protected boolean returnInstanceForEmptyRow;
   protected boolean shrinkWhitespacesInSql;
   protected boolean nullableOnForEach;
   protected boolean argNameBasedConstructorAutoMapping;
+  protected boolean tableLevelCacheInvalidation;
+  protected boolean coalesceQueries;
+  protected CacheInvalidationBus cacheInvalidationBus;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
   protected Class<? extends VFS> vfsImpl;
   protected Class<?> defaultSqlProviderType;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected Integer localCacheSize;
+  protected Integer localCacheMaxRows;
+  protected Integer localCacheMaxRowsPerQuery;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected boolean adaptiveFetchSize;
+  protected int minFetchSize = 10;
+  protected int maxFetchSize = 1000;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -164,6 +182,8 @@ public class Configuration {
 
   protected final Set<String> loadedResources = new HashSet<>();
   protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
+  protected final Map<Map.Entry<String, Class<?>>, SqlSource> sharedSqlSources = new ConcurrentHashMap<>();
+  protected volatile boolean parseStateReleased;
 
   protected final Collection<XMLStatementBuilder> incompleteStatements = new LinkedList<>();
   protected final Collection<CacheRefResolver> incompleteCacheRefs = new LinkedList<>();
@@ -195,6 +215,7 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("WEIGHTED", WeightedCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -283,6 +304,75 @@ public class Configuration {
     this.useActualParamName = useActualParamName;
   }
 
+  /**
+   * Gets whether mapper methods pass their arguments in a {@link org.apache.ibatis.binding.FixedParamMap} instead of a
+   * {@link org.apache.ibatis.binding.MapperMethod.ParamMap}.
+   *
+   * @return true if the compact parameter maps are used
+   * @since 3.5.11
+   */
+  public boolean isCompactParamMaps() {
+    return compactParamMaps;
+  }
+
+  /**
+   * Sets whether mapper methods pass their arguments in a {@link org.apache.ibatis.binding.FixedParamMap} instead of a
+   * {@link org.apache.ibatis.binding.MapperMethod.ParamMap}. This only affects mappers created after the change.
+   *
+   * @param compactParamMaps
+   *          true to use the compact parameter maps
+   * @since 3.5.11
+   */
+  public void setCompactParamMaps(boolean compactParamMaps) {
+    this.compactParamMaps = compactParamMaps;
+  }
+
+  /**
+   * Gets the number of distinct SQL kept per SQL provider method, with the SQL source parsed from each of them.
+   *
+   * @return the cache size, 0 when the SQL returned by providers is parsed on every execution
+   * @since 3.5.11
+   */
+  public int getProviderSqlCacheSize() {
+    return providerSqlCacheSize;
+  }
+
+  /**
+   * Sets the number of distinct SQL kept per SQL provider method, with the SQL source parsed from each of them.
+   *
+   * @param providerSqlCacheSize
+   *          the cache size, 0 to parse the SQL returned by providers on every execution
+   * @since 3.5.11
+   */
+  public void setProviderSqlCacheSize(int providerSqlCacheSize) {
+    this.providerSqlCacheSize = providerSqlCacheSize;
+  }
+
+  /**
+   * Gets whether statements with the same static SQL share their parsed SQL source, and whether the state only needed
+   * to parse mappers is released once the {@link SqlSessionFactory} is built.
+   *
+   * @return true when the configuration is kept compact
+   * @since 3.5.11
+   * @see #releaseParseState()
+   */
+  public boolean isCompactMetadata() {
+    return compactMetadata;
+  }
+
+  /**
+   * Sets whether statements with the same static SQL share their parsed SQL source, and whether the state only needed
+   * to parse mappers is released once the {@link SqlSessionFactory} is built.
+   *
+   * @param compactMetadata
+   *          true to keep the configuration compact
+   * @since 3.5.11
+   * @see #releaseParseState()
+   */
+  public void setCompactMetadata(boolean compactMetadata) {
+    this.compactMetadata = compactMetadata;
+  }
+
   public boolean isReturnInstanceForEmptyRow() {
     return returnInstanceForEmptyRow;
   }
@@ -329,6 +419,79 @@ public class Configuration {
     this.argNameBasedConstructorAutoMapping = argNameBasedConstructorAutoMapping;
   }
 
+  /**
+   * Returns whether a write invalidates only the 2nd level cache entries that depend on the tables it modifies.
+   *
+   * <p>Default is {@code false}.
+   *
+   * @return {@code true} if table level invalidation is enabled
+   * @since 3.5.11
+   */
+  public boolean isTableLevelCacheInvalidation() {
+    return tableLevelCacheInvalidation;
+  }
+
+  /**
+   * Sets whether a write invalidates only the 2nd level cache entries that depend on the tables it modifies, instead
+   * of clearing the whole cache. It applies to the caches created after this call.
+   *
+   * @param tableLevelCacheInvalidation
+   *          {@code true} to enable table level invalidation
+   * @since 3.5.11
+   */
+  public void setTableLevelCacheInvalidation(boolean tableLevelCacheInvalidation) {
+    this.tableLevelCacheInvalidation = tableLevelCacheInvalidation;
+  }
+
+  /**
+   * Returns whether identical selects running at the same time in different sessions share one database round trip.
+   *
+   * <p>Default is {@code false}.
+   *
+   * @return {@code true} if queries are coalesced
+   * @since 3.5.11
+   */
+  public boolean isCoalesceQueries() {
+    return coalesceQueries;
+  }
+
+  /**
+   * Sets whether identical selects running at the same time in different sessions share one database round trip. The
+   * sessions waiting for the query get a copy of the result made by serialization.
+   *
+   * @param coalesceQueries
+   *          {@code true} to coalesce queries
+   * @since 3.5.11
+   */
+  public void setCoalesceQueries(boolean coalesceQueries) {
+    this.coalesceQueries = coalesceQueries;
+  }
+
+  /**
+   * Gets the bus that keeps the second level caches consistent across the nodes of a cluster.
+   *
+   * @return the cache invalidation bus or null for a standalone node
+   * @since 3.5.11
+   */
+  public CacheInvalidationBus getCacheInvalidationBus() {
+    return cacheInvalidationBus;
+  }
+
+  /**
+   * Sets the bus that keeps the second level caches consistent across the nodes of a cluster. The bus is attached to
+   * this configuration: the invalidations received from the other nodes are applied to its caches.
+   *
+   * @param cacheInvalidationBus
+   *          the cache invalidation bus
+   * @since 3.5.11
+   */
+  public void setCacheInvalidationBus(CacheInvalidationBus cacheInvalidationBus) {
+    if (cacheInvalidationBus != null) {
+      cacheInvalidationBus.attach(this);
+    }
+    this.cacheInvalidationBus = cacheInvalidationBus;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -510,6 +673,71 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * Gets whether the fetch size of select statements that do not declare one is picked from the row counts observed in
+   * their previous executions.
+   *
+   * @return true if the fetch size is adaptive
+   * @since 3.5.11
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * Sets whether the fetch size of select statements that do not declare one is picked from the row counts observed in
+   * their previous executions. The default fetch size is used until a statement has been executed once.
+   *
+   * @param adaptiveFetchSize
+   *          true to adapt the fetch size
+   * @since 3.5.11
+   */
+  public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+  }
+
+  /**
+   * Gets the smallest fetch size picked when the fetch size is adaptive.
+   *
+   * @return the minimum fetch size
+   * @since 3.5.11
+   */
+  public int getMinFetchSize() {
+    return minFetchSize;
+  }
+
+  /**
+   * Sets the smallest fetch size picked when the fetch size is adaptive. The default is 10.
+   *
+   * @param minFetchSize
+   *          the minimum fetch size
+   * @since 3.5.11
+   */
+  public void setMinFetchSize(int minFetchSize) {
+    this.minFetchSize = minFetchSize;
+  }
+
+  /**
+   * Gets the largest fetch size picked when the fetch size is adaptive.
+   *
+   * @return the maximum fetch size
+   * @since 3.5.11
+   */
+  public int getMaxFetchSize() {
+    return maxFetchSize;
+  }
+
+  /**
+   * Sets the largest fetch size picked when the fetch size is adaptive. The default is 1000.
+   *
+   * @param maxFetchSize
+   *          the maximum fetch size
+   * @since 3.5.11
+   */
+  public void setMaxFetchSize(int maxFetchSize) {
+    this.maxFetchSize = maxFetchSize;
+  }
+
   /**
    * Gets the default result set type.
    *
@@ -547,6 +775,71 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  /**
+   * Gets the maximum number of query results kept in the local cache.
+   *
+   * @return the maximum number of results or null if unbounded
+   * @since 3.5.11
+   */
+  public Integer getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of query results kept in the local cache. The least recently used results are evicted.
+   *
+   * @param localCacheSize
+   *          the maximum number of results, null means unbounded
+   * @since 3.5.11
+   */
+  public void setLocalCacheSize(Integer localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  /**
+   * Gets the maximum number of rows kept in the local cache.
+   *
+   * @return the maximum number of rows or null if unbounded
+   * @since 3.5.11
+   */
+  public Integer getLocalCacheMaxRows() {
+    return localCacheMaxRows;
+  }
+
+  /**
+   * Sets the maximum number of rows, summed over all the cached results, kept in the local cache. The least recently
+   * used results are evicted.
+   *
+   * @param localCacheMaxRows
+   *          the maximum number of rows, null means unbounded
+   * @since 3.5.11
+   */
+  public void setLocalCacheMaxRows(Integer localCacheMaxRows) {
+    this.localCacheMaxRows = localCacheMaxRows;
+  }
+
+  /**
+   * Gets the maximum number of rows of a query result kept in the local cache.
+   *
+   * @return the maximum number of rows or null if unbounded
+   * @since 3.5.11
+   */
+  public Integer getLocalCacheMaxRowsPerQuery() {
+    return localCacheMaxRowsPerQuery;
+  }
+
+  /**
+   * Sets the maximum number of rows of a query result kept in the local cache. Larger results are not kept once the
+   * statement completes.
+   *
+   * @param localCacheMaxRowsPerQuery
+   *          the maximum number of rows, null means unbounded
+   * @since 3.5.11
+   */
+  public void setLocalCacheMaxRowsPerQuery(Integer localCacheMaxRowsPerQuery) {
+    this.localCacheMaxRowsPerQuery = localCacheMaxRowsPerQuery;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -707,7 +1000,7 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, cacheInvalidationBus);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
@@ -856,6 +1149,107 @@ public class Configuration {
     return sqlFragments;
   }
 
+  /**
+   * Gets the SQL source of a static SQL. When {@link #isCompactMetadata() compactMetadata} is enabled, the SQL source
+   * is shared by all the statements with the same SQL and parameter type that are parsed before
+   * {@link #releaseParseState()}.
+   *
+   * @param sql
+   *          the SQL, with its parameter placeholders
+   * @param parameterType
+   *          the parameter type
+   * @param parser
+   *          parses the SQL when it is not shared yet
+   * @return the SQL source
+   * @since 3.5.11
+   */
+  public SqlSource getSharedSqlSource(String sql, Class<?> parameterType, Supplier<SqlSource> parser) {
+    if (!compactMetadata || parseStateReleased) {
+      // SQL parsed at runtime (e.g. returned by SQL providers) is not shared
+      return parser.get();
+    }
+    return MapUtil.computeIfAbsent(sharedSqlSources, MapUtil.entry(sql, parameterType), k -> parser.get());
+  }
+
+  /**
+   * Releases what is only needed while mappers are parsed. Pending statements, result maps, cache refs and methods
+   * are built first, so errors in them are reported now. Once nothing is pending, the &lt;sql&gt; fragments are
+   * dropped: mappers added afterwards can only include their own fragments.
+   * <p>
+   * It is called by {@link SqlSessionFactoryBuilder} when {@link #isCompactMetadata() compactMetadata} is enabled.
+   *
+   * @since 3.5.11
+   */
+  public void releaseParseState() {
+    buildAllStatements();
+    if (incompleteStatements.isEmpty() && incompleteResultMaps.isEmpty() && incompleteCacheRefs.isEmpty()
+        && incompleteMethods.isEmpty()) {
+      sqlFragments.clear();
+    }
+    parseStateReleased = true;
+    sharedSqlSources.clear();
+  }
+
+  /**
+   * Counts the statements, result maps, parameter maps and SQL fragments this configuration holds, per namespace.
+   *
+   * @return the footprint of this configuration
+   * @since 3.5.11
+   */
+  public ConfigurationFootprint getFootprint() {
+    ConfigurationFootprint footprint = new ConfigurationFootprint();
+    for (Map.Entry<String, MappedStatement> entry : mappedStatements.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof MappedStatement && entry.getKey().equals(((MappedStatement) value).getId())) {
+        footprint.namespace(extractNamespace(entry.getKey())).mappedStatements++;
+      } else {
+        footprint.addShortNameEntry();
+      }
+    }
+    for (Map.Entry<String, ResultMap> entry : resultMaps.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof ResultMap && entry.getKey().equals(((ResultMap) value).getId())) {
+        ConfigurationFootprint.Namespace namespace = footprint.namespace(extractNamespace(entry.getKey()));
+        namespace.resultMaps++;
+        namespace.resultMappings += ((ResultMap) value).getResultMappings().size();
+      } else {
+        footprint.addShortNameEntry();
+      }
+    }
+    for (Map.Entry<String, ParameterMap> entry : parameterMaps.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof ParameterMap && entry.getKey().equals(((ParameterMap) value).getId())) {
+        ConfigurationFootprint.Namespace namespace = footprint.namespace(extractNamespace(entry.getKey()));
+        namespace.parameterMaps++;
+        namespace.parameterMappings += ((ParameterMap) value).getParameterMappings().size();
+      } else {
+        footprint.addShortNameEntry();
+      }
+    }
+    for (Map.Entry<String, Cache> entry : caches.entrySet()) {
+      Object value = entry.getValue();
+      if (!(value instanceof Cache && entry.getKey().equals(((Cache) value).getId()))) {
+        footprint.addShortNameEntry();
+      }
+    }
+    countShortNames(keyGenerators, footprint);
+    for (String key : sqlFragments.keySet()) {
+      if (key.indexOf('.') > -1) {
+        footprint.namespace(extractNamespace(key)).sqlFragments++;
+      }
+    }
+    countShortNames(sqlFragments, footprint);
+    return footprint;
+  }
+
+  private static void countShortNames(Map<String, ?> map, ConfigurationFootprint footprint) {
+    for (String key : map.keySet()) {
+      if (key.indexOf('.') == -1) {
+        footprint.addShortNameEntry();
+      }
+    }
+  }
+
   public void addInterceptor(Interceptor interceptor) {
     interceptorChain.addInterceptor(interceptor);
   }
@@ -1081,8 +1475,8 @@ public class Configuration {
     }
 
     private String getShortName(String key) {
-      final String[] keyParts = key.split("\\.");
-      return keyParts[keyParts.length - 1];
+      // short names are mostly mapper method names, which are interned already
+      return key.substring(key.lastIndexOf('.') + 1).intern();
     }
   }
 
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What a {@link Configuration} holds, counted per namespace. It tells which mapper namespaces make up most of the
+ * configuration and whether the parse-time state has been released (see {@link Configuration#releaseParseState()}).
+ *
+ * @since 3.5.11
+ * @see Configuration#getFootprint()
+ */
+public class ConfigurationFootprint {
+
+  private final Map<String, Namespace> namespaces = new TreeMap<>();
+  private int shortNameEntries;
+
+  ConfigurationFootprint() {
+  }
+
+  Namespace namespace(String name) {
+    return namespaces.computeIfAbsent(name == null ? "" : name, Namespace::new);
+  }
+
+  void addShortNameEntry() {
+    shortNameEntries++;
+  }
+
+  /**
+   * Gets the footprint of each namespace, sorted by name. Elements declared without a namespace are under the empty
+   * name.
+   *
+   * @return the namespaces
+   */
+  public Map<String, Namespace> getNamespaces() {
+    return Collections.unmodifiableMap(namespaces);
+  }
+
+  /**
+   * Gets the number of entries the configuration keeps to find statements, result maps, parameter maps, caches and
+   * key generators by their short name, ambiguous names included.
+   *
+   * @return the number of short name entries
+   */
+  public int getShortNameEntries() {
+    return shortNameEntries;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Namespace namespace : namespaces.values()) {
+      sb.append(namespace).append('\n');
+    }
+    return sb.append("short name entries=").append(shortNameEntries).toString();
+  }
+
+  /**
+   * What a configuration holds for one namespace.
+   */
+  public static class Namespace {
+
+    private final String name;
+    int mappedStatements;
+    int resultMaps;
+    int resultMappings;
+    int parameterMaps;
+    int parameterMappings;
+    int sqlFragments;
+
+    Namespace(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getMappedStatements() {
+      return mappedStatements;
+    }
+
+    public int getResultMaps() {
+      return resultMaps;
+    }
+
+    public int getResultMappings() {
+      return resultMappings;
+    }
+
+    public int getParameterMaps() {
+      return parameterMaps;
+    }
+
+    public int getParameterMappings() {
+      return parameterMappings;
+    }
+
+    /**
+     * Gets the number of &lt;sql&gt; fragments still held for the includes of mappers parsed later.
+     *
+     * @return the number of SQL fragments
+     */
+    public int getSqlFragments() {
+      return sqlFragments;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": mappedStatements=" + mappedStatements + ", resultMaps=" + resultMaps + ", resultMappings="
+          + resultMappings + ", parameterMaps=" + parameterMaps + ", parameterMappings=" + parameterMappings
+          + ", sqlFragments=" + sqlFragments;
+    }
+  }
+
+}
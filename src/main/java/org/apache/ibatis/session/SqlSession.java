@@ -22,6 +22,8 @@ import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.result.ColumnBatch;
+import org.apache.ibatis.executor.result.ColumnBatchResultHandler;
 
 /**
  * The primary Java interface for working with MyBatis.
@@ -144,6 +146,44 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Retrieve the rows of a select column by column, without mapping them to objects. Numeric columns are read into
+   * primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @return the rows of the first result set
+   * @since 3.5.11
+   */
+  default ColumnBatch selectColumns(String statement) {
+    return selectColumns(statement, null);
+  }
+
+  /**
+   * Retrieve the rows of a select column by column, without mapping them to objects. Numeric columns are read into
+   * primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return the rows of the first result set
+   * @since 3.5.11
+   */
+  default ColumnBatch selectColumns(String statement, Object parameter) {
+    return selectColumns(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  /**
+   * Retrieve the rows of a select column by column, without mapping them to objects. Numeric columns are read into
+   * primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return the rows of the first result set
+   * @since 3.5.11
+   */
+  default ColumnBatch selectColumns(String statement, Object parameter, RowBounds rowBounds) {
+    ColumnBatchResultHandler handler = new ColumnBatchResultHandler();
+    select(statement, parameter, rowBounds, handler);
+    return handler.getBatch();
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
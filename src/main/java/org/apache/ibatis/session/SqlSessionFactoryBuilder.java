@@ -93,6 +93,9 @@ public class SqlSessionFactoryBuilder {
   }
 
   public SqlSessionFactory build(Configuration config) {
+    if (config.isCompactMetadata()) {
+      config.releaseParseState();
+    }
     return new DefaultSqlSessionFactory(config);
   }
 
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of sorted shard results. Equal results keep the order of the shards.
+ *
+ * @param <E>
+ *          the result element type
+ */
+class OrderedShardMerger<E> implements ShardMerger<E> {
+
+  private final Comparator<? super E> comparator;
+
+  OrderedShardMerger(Comparator<? super E> comparator) {
+    if (comparator == null) {
+      throw new IllegalArgumentException("Parameter 'comparator' must not be null");
+    }
+    this.comparator = comparator;
+  }
+
+  @Override
+  public List<E> merge(List<List<E>> shardResults) {
+    int size = 0;
+    PriorityQueue<Head<E>> heads = new PriorityQueue<>(Math.max(1, shardResults.size()),
+        this::compare);
+    for (int i = 0; i < shardResults.size(); i++) {
+      List<E> shardResult = shardResults.get(i);
+      size += shardResult.size();
+      if (!shardResult.isEmpty()) {
+        heads.add(new Head<>(i, shardResult));
+      }
+    }
+    List<E> merged = new ArrayList<>(size);
+    while (!heads.isEmpty()) {
+      Head<E> head = heads.poll();
+      merged.add(head.current());
+      if (head.advance()) {
+        heads.add(head);
+      }
+    }
+    return merged;
+  }
+
+  private int compare(Head<E> a, Head<E> b) {
+    int result = comparator.compare(a.current(), b.current());
+    return result != 0 ? result : Integer.compare(a.shard, b.shard);
+  }
+
+  private static class Head<E> {
+    private final int shard;
+    private final List<E> list;
+    private int index;
+
+    Head(int shard, List<E> list) {
+      this.shard = shard;
+      this.list = list;
+    }
+
+    E current() {
+      return list.get(index);
+    }
+
+    boolean advance() {
+      return ++index < list.size();
+    }
+  }
+
+}
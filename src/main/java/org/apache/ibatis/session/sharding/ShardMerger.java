@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Merges the results returned by each shard into a single list.
+ *
+ * @param <E>
+ *          the result element type
+ * @since 3.5.11
+ * @see ShardedSqlSession
+ */
+@FunctionalInterface
+public interface ShardMerger<E> {
+
+  /**
+   * Merges the shard results.
+   *
+   * @param shardResults
+   *          the results of each shard, in the order the shards were given
+   * @return the merged list
+   */
+  List<E> merge(List<List<E>> shardResults);
+
+  /**
+   * Returns a merger that appends the results of each shard.
+   *
+   * @param <E>
+   *          the result element type
+   * @return the merger
+   */
+  static <E> ShardMerger<E> concat() {
+    return shardResults -> {
+      int size = 0;
+      for (List<E> shardResult : shardResults) {
+        size += shardResult.size();
+      }
+      List<E> merged = new ArrayList<>(size);
+      for (List<E> shardResult : shardResults) {
+        merged.addAll(shardResult);
+      }
+      return merged;
+    };
+  }
+
+  /**
+   * Returns a merger that merges results already sorted by each shard (i.e. with an ORDER BY clause matching the
+   * comparator) into a single sorted list.
+   *
+   * @param <E>
+   *          the result element type
+   * @param comparator
+   *          the order of the results
+   * @return the merger
+   */
+  static <E> ShardMerger<E> orderBy(Comparator<? super E> comparator) {
+    return new OrderedShardMerger<>(comparator);
+  }
+
+  /**
+   * Returns a merger that merges results already sorted by each shard on the given key into a single sorted list.
+   *
+   * @param <E>
+   *          the result element type
+   * @param <K>
+   *          the key type
+   * @param keyExtractor
+   *          extracts the sort key from a result
+   * @return the merger
+   */
+  static <E, K extends Comparable<? super K>> ShardMerger<E> orderBy(Function<? super E, ? extends K> keyExtractor) {
+    return orderBy(Comparator.comparing(keyExtractor));
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Runs a select against several environments (shards) concurrently and merges the results.
+ * <p>
+ * All the shards share the mapped statements of one {@link Configuration}. Each shard is queried in its own
+ * short-lived session on the given {@link ExecutorService}, so the latency of a call is that of the slowest shard.
+ * The size of the executor bounds the number of connections used at the same time. If a shard fails or the timeout
+ * expires, the remaining shard queries are cancelled and a {@link PersistenceException} is thrown.
+ * <p>
+ * When a {@link RowBounds} is given, each shard is asked for at most {@code offset + limit} rows and the offset and
+ * limit are applied to the merged list. Use it with {@link ShardMerger#orderBy(java.util.Comparator)} to get the
+ * first rows of the global order.
+ * <p>
+ * The sessions are closed before the results are returned, so lazy loading is not supported. This class is
+ * thread-safe.
+ *
+ * @since 3.5.11
+ */
+public class ShardedSqlSession {
+
+  private final Configuration configuration;
+  private final List<Environment> shards;
+  private final ExecutorService executorService;
+  private long timeoutNanos;
+
+  public ShardedSqlSession(Configuration configuration, List<Environment> shards, ExecutorService executorService) {
+    if (shards == null || shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    this.configuration = configuration;
+    this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    this.executorService = executorService;
+  }
+
+  /**
+   * Sets how long a call waits for all the shards. No timeout when 0 or less.
+   *
+   * @param timeout
+   *          the timeout
+   * @param unit
+   *          the unit of the timeout
+   */
+  public void setTimeout(long timeout, TimeUnit unit) {
+    this.timeoutNanos = timeout > 0 ? unit.toNanos(timeout) : 0;
+  }
+
+  public List<Environment> getShards() {
+    return shards;
+  }
+
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  public <E> List<E> selectList(String statement) {
+    return selectList(statement, null);
+  }
+
+  public <E> List<E> selectList(String statement, Object parameter) {
+    return selectList(statement, parameter, ShardMerger.concat());
+  }
+
+  public <E> List<E> selectList(String statement, Object parameter, ShardMerger<E> merger) {
+    return selectList(statement, parameter, RowBounds.DEFAULT, merger);
+  }
+
+  /**
+   * Runs the statement on every shard and merges the results.
+   *
+   * @param <E>
+   *          the result element type
+   * @param statement
+   *          the statement id
+   * @param parameter
+   *          the parameter object
+   * @param rowBounds
+   *          the offset and limit of the merged list
+   * @param merger
+   *          merges the shard results
+   * @return the merged results
+   */
+  public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds, ShardMerger<E> merger) {
+    MappedStatement ms = configuration.getMappedStatement(statement);
+    Object wrappedParameter = ParamNameResolver.wrapToMapIfCollection(parameter, null);
+    RowBounds shardRowBounds = shardRowBounds(rowBounds);
+    List<Future<List<E>>> futures = new ArrayList<>(shards.size());
+    try {
+      for (Environment shard : shards) {
+        futures.add(executorService.submit(() -> queryShard(shard, ms, wrappedParameter, shardRowBounds)));
+      }
+    } catch (RejectedExecutionException e) {
+      cancel(futures);
+      throw ExceptionFactory.wrapException("Error submitting shard queries.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+    List<List<E>> shardResults = awaitAll(ms, futures);
+    return applyRowBounds(merger.merge(shardResults), rowBounds);
+  }
+
+  private <E> List<List<E>> awaitAll(MappedStatement ms, List<Future<List<E>>> futures) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    List<List<E>> shardResults = new ArrayList<>(futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      Future<List<E>> future = futures.get(i);
+      try {
+        shardResults.add(timeoutNanos > 0 ? future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) : future.get());
+      } catch (ExecutionException e) {
+        cancel(futures);
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new PersistenceException("Error querying shard '" + shards.get(i).getId() + "'.  Cause: " + cause, cause);
+      } catch (TimeoutException | CancellationException e) {
+        cancel(futures);
+        throw new PersistenceException("Timed out waiting for shard '" + shards.get(i).getId() + "' running '"
+            + ms.getId() + "'.", e);
+      } catch (InterruptedException e) {
+        cancel(futures);
+        Thread.currentThread().interrupt();
+        throw new PersistenceException("Interrupted while waiting for shard '" + shards.get(i).getId() + "'.", e);
+      }
+    }
+    return shardResults;
+  }
+
+  private <E> List<E> queryShard(Environment shard, MappedStatement ms, Object parameter, RowBounds rowBounds) {
+    Transaction tx = shard.getTransactionFactory().newTransaction(shard.getDataSource(), null, false);
+    Executor executor = configuration.newExecutor(tx, configuration.getDefaultExecutorType());
+    try {
+      BoundSql boundSql = ms.getBoundSql(parameter);
+      CacheKey key = executor.createCacheKey(ms, parameter, rowBounds, boundSql);
+      // the shards share the configuration, tell their cached results apart
+      key.update(shard.getId());
+      return executor.query(ms, parameter, rowBounds, Executor.NO_RESULT_HANDLER, key, boundSql);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying shard '" + shard.getId() + "'.  Cause: " + e, e);
+    } finally {
+      executor.close(false);
+      ErrorContext.instance().reset();
+    }
+  }
+
+  private static RowBounds shardRowBounds(RowBounds rowBounds) {
+    if (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET) {
+      return rowBounds;
+    }
+    if (rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+      return RowBounds.DEFAULT;
+    }
+    long limit = (long) rowBounds.getOffset() + rowBounds.getLimit();
+    return new RowBounds(RowBounds.NO_ROW_OFFSET, (int) Math.min(limit, RowBounds.NO_ROW_LIMIT));
+  }
+
+  private static <E> List<E> applyRowBounds(List<E> merged, RowBounds rowBounds) {
+    int from = Math.min(rowBounds.getOffset(), merged.size());
+    int to = (int) Math.min((long) from + rowBounds.getLimit(), merged.size());
+    if (from == 0 && to == merged.size()) {
+      return merged;
+    }
+    return new ArrayList<>(merged.subList(from, to));
+  }
+
+  private static void cancel(List<? extends Future<?>> futures) {
+    for (Future<?> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+}
@@ -18,6 +18,8 @@ package org.apache.ibatis.transaction;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import org.apache.ibatis.mapping.MappedStatement;
+
 /**
  * Wraps a database connection.
  * Handles the connection lifecycle that comprises: its creation, preparation, commit/rollback and close.
@@ -64,4 +66,16 @@ public interface Transaction {
    */
   Integer getTimeout() throws SQLException;
 
+  /**
+   * Notifies the transaction of the statement the executor is about to run. Transactions that manage more than one
+   * connection can use it to choose the connection returned by the following {@link #getConnection()} calls.
+   *
+   * @param ms
+   *          the statement about to run
+   * @since 3.5.11
+   */
+  default void beforeStatement(MappedStatement ms) {
+    // NOP
+  }
+
 }
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.transaction.routing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * {@link Transaction} that sends read-only statements to a replica and everything else to the primary database.
+ * <p>
+ * A statement is read-only when it is a select that is not flagged with {@code affectData}. Once a statement that
+ * writes has run, all the following statements go to the primary until the transaction is committed or rolled back,
+ * so a session always reads its own pending writes. If the replica connection cannot be opened the primary is used
+ * instead. Connections are opened lazily, a transaction that only reads never connects to the primary.
+ *
+ * @since 3.5.11
+ * @see ReadWriteTransactionFactory
+ */
+public class ReadWriteTransaction implements Transaction {
+
+  private static final Log log = LogFactory.getLog(ReadWriteTransaction.class);
+
+  private final Transaction primary;
+  private Transaction replica;
+  private boolean readOnly;
+  private boolean writing;
+
+  public ReadWriteTransaction(Transaction primary, Transaction replica) {
+    this.primary = primary;
+    this.replica = replica;
+  }
+
+  @Override
+  public void beforeStatement(MappedStatement ms) {
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT || ms.isDirtySelect()) {
+      writing = true;
+    }
+    readOnly = !writing;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (readOnly && replica != null) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException e) {
+        log.warn("Could not open a replica connection, falling back to the primary. Cause: " + e);
+        closeReplica();
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    try {
+      primary.commit();
+      if (replica != null) {
+        replica.commit();
+      }
+    } finally {
+      writing = false;
+    }
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    try {
+      primary.rollback();
+      if (replica != null) {
+        replica.rollback();
+      }
+    } finally {
+      writing = false;
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    try {
+      primary.close();
+    } finally {
+      if (replica != null) {
+        replica.close();
+      }
+    }
+  }
+
+  @Override
+  public Integer getTimeout() throws SQLException {
+    return readOnly && replica != null ? replica.getTimeout() : primary.getTimeout();
+  }
+
+  /**
+   * Returns whether the statements run so far require the primary database.
+   *
+   * @return true if a statement that writes has run since the last commit or rollback
+   */
+  public boolean isWriting() {
+    return writing;
+  }
+
+  private void closeReplica() {
+    Transaction failed = replica;
+    replica = null;
+    try {
+      failed.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+}
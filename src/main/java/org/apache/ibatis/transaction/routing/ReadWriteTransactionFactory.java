@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.transaction.routing;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.TransactionFactory;
+
+/**
+ * Creates {@link ReadWriteTransaction} instances.
+ * <p>
+ * The data source of the environment is the primary database. Each transaction is given one of the replicas in
+ * round-robin order, override {@link #nextReplica()} to balance the load differently. The actual transactions are
+ * created by the delegate factory.
+ *
+ * <pre>
+ * TransactionFactory factory = new ReadWriteTransactionFactory(new JdbcTransactionFactory(),
+ *     Arrays.asList(replica1, replica2));
+ * Environment environment = new Environment("production", factory, primary);
+ * </pre>
+ *
+ * @since 3.5.11
+ * @see ReadWriteTransaction
+ */
+public class ReadWriteTransactionFactory implements TransactionFactory {
+
+  private final TransactionFactory delegate;
+  private final List<DataSource> replicas;
+  private final AtomicInteger counter = new AtomicInteger();
+
+  public ReadWriteTransactionFactory(TransactionFactory delegate, List<DataSource> replicas) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("Parameter 'delegate' must not be null");
+    }
+    this.delegate = delegate;
+    this.replicas = replicas == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(replicas));
+  }
+
+  @Override
+  public void setProperties(Properties props) {
+    delegate.setProperties(props);
+  }
+
+  @Override
+  public Transaction newTransaction(Connection conn) {
+    return delegate.newTransaction(conn);
+  }
+
+  @Override
+  public Transaction newTransaction(DataSource dataSource, TransactionIsolationLevel level, boolean autoCommit) {
+    Transaction primary = delegate.newTransaction(dataSource, level, autoCommit);
+    if (replicas.isEmpty()) {
+      return primary;
+    }
+    return new ReadWriteTransaction(primary, delegate.newTransaction(nextReplica(), level, autoCommit));
+  }
+
+  /**
+   * Chooses the replica used by a new transaction.
+   *
+   * @return the replica data source
+   */
+  protected DataSource nextReplica() {
+    return replicas.get(Math.floorMod(counter.getAndIncrement(), replicas.size()));
+  }
+
+  public List<DataSource> getReplicas() {
+    return replicas;
+  }
+
+}
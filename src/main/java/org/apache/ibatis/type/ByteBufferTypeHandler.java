@@ -0,0 +1,101 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link ByteBuffer}.
+ * <p>
+ * The remaining bytes of the buffer are bound as a binary stream of known length, read straight from the buffer
+ * without copying it into an intermediate array. The position of the given buffer is not changed.
+ *
+ * @since 3.5.11
+ */
+public class ByteBufferTypeHandler extends BaseTypeHandler<ByteBuffer> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, ByteBuffer parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setBinaryStream(i, new ByteBufferInputStream(parameter.duplicate()), parameter.remaining());
+  }
+
+  @Override
+  public ByteBuffer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return toByteBuffer(rs.getBytes(columnName));
+  }
+
+  @Override
+  public ByteBuffer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return toByteBuffer(rs.getBytes(columnIndex));
+  }
+
+  @Override
+  public ByteBuffer getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return toByteBuffer(cs.getBytes(columnIndex));
+  }
+
+  private ByteBuffer toByteBuffer(byte[] bytes) {
+    return bytes == null ? null : ByteBuffer.wrap(bytes);
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.get(b, off, count);
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      // cast for Java 8, ByteBuffer overrides position(int) since Java 9
+      ((Buffer) buffer).position(buffer.position() + count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+}
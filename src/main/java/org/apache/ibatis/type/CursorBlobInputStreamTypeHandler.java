@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link Blob}/{@link InputStream} read from a {@link org.apache.ibatis.cursor.Cursor}
+ * row by row.
+ * <p>
+ * Unlike {@link BlobInputStreamTypeHandler}, the returned stream does not open the value until it is first read and
+ * its lifetime is tied to the row it was read from: once the cursor fetches the next row, reading fails with an
+ * {@link IOException} instead of returning whatever the driver has left in its buffers. Closing the stream frees the
+ * {@link Blob}. Use this handler with a Cursor or a ResultHandler, not with statements that return a List.
+ *
+ * @since 3.5.11
+ */
+public class CursorBlobInputStreamTypeHandler extends BaseTypeHandler<InputStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, InputStream parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setBinaryStream(i, parameter);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    Blob blob = rs.getBlob(columnName);
+    return blob == null ? null : new RowInputStream(new ResultSetRow(rs), blob);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    Blob blob = rs.getBlob(columnIndex);
+    return blob == null ? null : new RowInputStream(new ResultSetRow(rs), blob);
+  }
+
+  @Override
+  public InputStream getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    Blob blob = cs.getBlob(columnIndex);
+    return blob == null ? null : blob.getBinaryStream();
+  }
+
+  private static class RowInputStream extends InputStream {
+
+    private final ResultSetRow row;
+    private final Blob blob;
+    private InputStream stream;
+    private boolean closed;
+
+    RowInputStream(ResultSetRow row, Blob blob) {
+      this.row = row;
+      this.blob = blob;
+    }
+
+    private InputStream stream() throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      row.check();
+      if (stream == null) {
+        try {
+          stream = blob.getBinaryStream();
+        } catch (SQLException e) {
+          throw new IOException("Error opening the large object.  Cause: " + e, e);
+        }
+      }
+      return stream;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return stream().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return stream().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return stream().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return stream == null || closed ? 0 : stream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (stream != null) {
+          stream.close();
+        }
+      } finally {
+        try {
+          blob.free();
+        } catch (SQLException e) {
+          // the result set has been closed, the driver has released the value already
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link Clob}/{@link Reader} read from a {@link org.apache.ibatis.cursor.Cursor} row by
+ * row.
+ * <p>
+ * Unlike {@link ClobReaderTypeHandler}, the returned reader does not open the value until it is first read and its
+ * lifetime is tied to the row it was read from: once the cursor fetches the next row, reading fails with an
+ * {@link IOException}. Closing the reader frees the {@link Clob}. Use this handler with a Cursor or a ResultHandler,
+ * not with statements that return a List.
+ *
+ * @since 3.5.11
+ */
+public class CursorClobReaderTypeHandler extends BaseTypeHandler<Reader> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Reader parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setCharacterStream(i, parameter);
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    Clob clob = rs.getClob(columnName);
+    return clob == null ? null : new RowReader(new ResultSetRow(rs), clob);
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    Clob clob = rs.getClob(columnIndex);
+    return clob == null ? null : new RowReader(new ResultSetRow(rs), clob);
+  }
+
+  @Override
+  public Reader getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    Clob clob = cs.getClob(columnIndex);
+    return clob == null ? null : clob.getCharacterStream();
+  }
+
+  private static class RowReader extends Reader {
+
+    private final ResultSetRow row;
+    private final Clob clob;
+    private Reader reader;
+    private boolean closed;
+
+    RowReader(ResultSetRow row, Clob clob) {
+      this.row = row;
+      this.clob = clob;
+    }
+
+    private Reader reader() throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      row.check();
+      if (reader == null) {
+        try {
+          reader = clob.getCharacterStream();
+        } catch (SQLException e) {
+          throw new IOException("Error opening the large object.  Cause: " + e, e);
+        }
+      }
+      return reader;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      return reader().read(cbuf, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return reader().skip(n);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (reader != null) {
+          reader.close();
+        }
+      } finally {
+        try {
+          clob.free();
+        } catch (SQLException e) {
+          // the result set has been closed, the driver has released the value already
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for binary large objects held in a file.
+ * <p>
+ * A {@link Path} parameter is bound as a binary stream of the file's length, so the driver reads the file as it sends
+ * it. The file is only opened when the driver starts reading and is closed as soon as its last byte was read. On read,
+ * the value is streamed from the driver into a new temporary file whose path is returned; the value is never held in
+ * memory as a whole. The caller owns the temporary file and has to delete it once done.
+ * <p>
+ * This handler is not registered by default. Register it for {@code java.nio.file.Path} and declare that Java type on
+ * the mappings that use it, as paths are instances of file system provider classes.
+ *
+ * @since 3.5.11
+ */
+public class PathTypeHandler extends BaseTypeHandler<Path> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Path parameter, JdbcType jdbcType)
+      throws SQLException {
+    try {
+      long length = Files.size(parameter);
+      ps.setBinaryStream(i, new FileStream(parameter, length), length);
+    } catch (IOException e) {
+      throw new TypeException("Error reading file '" + parameter + "'.  Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public Path getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return spill(rs.getBinaryStream(columnName));
+  }
+
+  @Override
+  public Path getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return spill(rs.getBinaryStream(columnIndex));
+  }
+
+  @Override
+  public Path getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    Blob blob = cs.getBlob(columnIndex);
+    return blob == null ? null : spill(blob.getBinaryStream());
+  }
+
+  /**
+   * Creates the file a value read from the database is written to.
+   *
+   * @return the new file
+   * @throws IOException
+   *           if the file cannot be created
+   */
+  protected Path createTempFile() throws IOException {
+    return Files.createTempFile("mybatis-lob-", ".tmp");
+  }
+
+  private Path spill(InputStream in) {
+    if (in == null) {
+      return null;
+    }
+    Path file = null;
+    try (InputStream stream = in) {
+      file = createTempFile();
+      Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+      return file;
+    } catch (IOException e) {
+      deleteQuietly(file);
+      throw new TypeException("Error writing a large object to a temporary file.  Cause: " + e, e);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Reads a file that is opened on the first read and closed once its expected length was read, so that a bound
+   * parameter does not keep a file handle open until the statement is garbage collected.
+   */
+  private static class FileStream extends InputStream {
+
+    private final Path file;
+    private long remaining;
+    private InputStream in;
+    private boolean closed;
+
+    FileStream(Path file, long length) {
+      this.file = file;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      InputStream stream = open();
+      int b = stream == null ? -1 : stream.read();
+      consumed(b == -1 ? -1 : 1);
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      InputStream stream = open();
+      int n = stream == null ? -1 : stream.read(b, off, len);
+      consumed(n);
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return in == null ? 0 : in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      if (in != null) {
+        in.close();
+        in = null;
+      }
+    }
+
+    private InputStream open() throws IOException {
+      if (in == null && !closed) {
+        in = Files.newInputStream(file);
+      }
+      return in;
+    }
+
+    private void consumed(int n) throws IOException {
+      if (n == -1) {
+        close();
+        return;
+      }
+      remaining -= n;
+      if (remaining <= 0) {
+        close();
+      }
+    }
+
+  }
+
+}
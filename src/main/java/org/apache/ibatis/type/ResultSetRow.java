@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The row of a result set a large object was read from, used to detect that the result set has moved on.
+ *
+ * @since 3.5.11
+ */
+final class ResultSetRow {
+
+  private final ResultSet resultSet;
+  private final int row;
+
+  ResultSetRow(ResultSet resultSet) {
+    this.resultSet = resultSet;
+    this.row = getRow(resultSet);
+  }
+
+  /**
+   * Checks that the result set is still open and positioned on the row. Drivers that do not report row numbers are
+   * only checked for being open.
+   */
+  void check() throws IOException {
+    try {
+      if (resultSet.isClosed() || row != 0 && getRow(resultSet) != row) {
+        throw new IOException("The large object is no longer available because the result set has moved past row "
+            + row + ". Read it before fetching the next row of the cursor.");
+      }
+    } catch (SQLException e) {
+      throw new IOException("Error checking the result set position.  Cause: " + e, e);
+    }
+  }
+
+  private static int getRow(ResultSet resultSet) {
+    try {
+      return resultSet.getRow();
+    } catch (SQLException e) {
+      // some drivers, like Derby, only report row numbers for scrollable result sets
+      return 0;
+    }
+  }
+
+}
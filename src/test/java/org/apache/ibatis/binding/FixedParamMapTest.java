@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class FixedParamMapTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    DataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:fixed_param_map", "sa",
+        "");
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/binding/FixedParamMapTest.sql");
+    Configuration configuration = new Configuration(
+        new Environment("fixed_param_map", new JdbcTransactionFactory(), dataSource));
+    configuration.setCompactParamMaps(true);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void shouldShareArgumentsBetweenNamesAndGenericNames() {
+    Map<String, Object> map = newMap();
+    assertEquals(4, map.size());
+    assertEquals("a", map.get("name"));
+    assertEquals("a", map.get("param1"));
+    assertEquals(2, map.get("param2"));
+    assertEquals("[name, param1, count, param2]", map.keySet().toString());
+    assertFalse(map.containsKey("rowBounds"));
+    BindingException e = assertThrows(BindingException.class, () -> map.get("other"));
+    assertEquals("Parameter 'other' not found. Available parameters are [name, param1, count, param2]",
+        e.getMessage());
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("name", "a");
+    expected.put("param1", "a");
+    expected.put("count", 2);
+    expected.put("param2", 2);
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+  }
+
+  @Test
+  void shouldCopyArgumentsOnWrite() {
+    Object[] args = { "a", RowBounds.DEFAULT, 2 };
+    Map<String, Object> map = new FixedParamMap(layout(), args);
+    assertEquals("a", map.put("param1", "b"));
+    assertEquals("b", map.get("name"));
+    assertEquals("a", args[0]);
+
+    assertNull(map.put("extra", 3));
+    assertEquals(5, map.size());
+    assertEquals("b", map.get("param1"));
+    assertEquals(2, map.remove("count"));
+    assertThrows(BindingException.class, () -> map.get("count"));
+  }
+
+  @Test
+  void shouldSerializeAsParamMap() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(newMap());
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertTrue(copy instanceof ParamMap);
+      assertEquals(newMap(), copy);
+    }
+  }
+
+  @Test
+  void shouldResolveFixedParamMaps() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    ParamNameResolver resolver = new ParamNameResolver(configuration,
+        Mapper.class.getMethod("namesByTag", String.class, int.class));
+    Object params = resolver.getNamedParams(new Object[] { "x", 1 });
+    assertTrue(params instanceof FixedParamMap);
+    assertEquals("{tag=x, param1=x, max=1, param2=1}", params.toString());
+
+    resolver = new ParamNameResolver(configuration, Mapper.class.getMethod("namesIn", List.class));
+    params = resolver.getNamedParams(new Object[] { Arrays.asList(1) });
+    assertEquals("{collection=[1], list=[1], ids=[1]}", params.toString());
+    assertEquals("x", resolver.getNamedParams(new Object[] { "x" }));
+  }
+
+  @Test
+  void shouldBindMapperArguments() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("a", "b"), mapper.namesByTag("x", 10));
+      assertEquals(Arrays.asList("b"), mapper.namesByTagAbove("x", RowBounds.DEFAULT, 1));
+      assertEquals(Arrays.asList("a", "c"), mapper.namesIn(Arrays.asList(1, 3)));
+      assertEquals(Arrays.asList("b", "c"), mapper.namesInArray(new int[] { 2, 3 }));
+      assertEquals(Arrays.asList("c"), mapper.namesLike("c", null));
+      assertEquals(Arrays.asList("a", "b"), mapper.namesLike(null, "x"));
+    }
+  }
+
+  @Test
+  void shouldAssignGeneratedKeysToNamedParameter() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Item item = new Item();
+      item.setName("d");
+      assertEquals(1, mapper.insert(item, "z"));
+      assertNotNull(item.getId());
+      assertEquals(Arrays.asList("d"), mapper.namesIn(Arrays.asList(item.getId())));
+      sqlSession.rollback();
+    }
+  }
+
+  private static FixedParamMap.Layout layout() {
+    Map<String, Integer> argIndexes = new LinkedHashMap<>();
+    argIndexes.put("name", 0);
+    argIndexes.put("param1", 0);
+    argIndexes.put("count", 2);
+    argIndexes.put("param2", 2);
+    return new FixedParamMap.Layout(argIndexes);
+  }
+
+  private static Map<String, Object> newMap() {
+    return new FixedParamMap(layout(), new Object[] { "a", RowBounds.DEFAULT, 2 });
+  }
+
+  public static class Item {
+
+    private Integer id;
+    private String name;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public void setId(Integer id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  interface Mapper {
+
+    @Select("select name from item where tag = #{tag} and id <= #{param2} order by id")
+    List<String> namesByTag(@Param("tag") String tag, @Param("max") int max);
+
+    @Select("select name from item where tag = #{param1} and id > #{min} order by id")
+    List<String> namesByTagAbove(String tag, RowBounds rowBounds, @Param("min") int min);
+
+    @Select("<script>select name from item where id in"
+        + "<foreach collection='list' item='id' open='(' separator=',' close=')'>#{id}</foreach> order by id</script>")
+    List<String> namesIn(List<Integer> ids);
+
+    @Select("<script>select name from item where id in"
+        + "<foreach collection='array' item='id' open='(' separator=',' close=')'>#{id}</foreach> order by id</script>")
+    List<String> namesInArray(int[] ids);
+
+    @Select("<script>select name from item <where><if test='name != null'>name = #{name}</if>"
+        + "<if test='tag != null'>and tag = #{tag}</if></where> order by id</script>")
+    List<String> namesLike(@Param("name") String name, @Param("tag") String tag);
+
+    @Insert("insert into item (name, tag) values (#{item.name}, #{tag})")
+    @Options(useGeneratedKeys = true, keyProperty = "item.id")
+    int insert(@Param("item") Item item, @Param("tag") String tag);
+
+  }
+
+}
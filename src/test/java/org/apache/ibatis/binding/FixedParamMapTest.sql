@@ -0,0 +1,27 @@
+--
+--    Copyright 2009-2022 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table item if exists;
+
+create table item (
+  id int generated by default as identity (start with 1) primary key,
+  name varchar(20),
+  tag varchar(20)
+);
+
+insert into item (name, tag) values ('a', 'x');
+insert into item (name, tag) values ('b', 'x');
+insert into item (name, tag) values ('c', 'y');
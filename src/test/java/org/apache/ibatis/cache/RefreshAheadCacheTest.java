@@ -0,0 +1,194 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.jdbc.SqlRunner;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class RefreshAheadCacheTest {
+
+  @Test
+  void shouldExpireEachEntryOnItsOwn() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(100);
+    cache.putObject("old", "old");
+    Thread.sleep(60);
+    cache.putObject("new", "new");
+    Thread.sleep(60);
+    assertNull(cache.getObject("old"));
+    assertEquals("new", cache.getObject("new"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRefreshEntryReadBeforeExpiry() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(60000);
+    AtomicInteger loads = new AtomicInteger();
+    cache.putObject("key", "stale", () -> "fresh" + loads.incrementAndGet());
+    assertEquals("stale", cache.getObject("key"));
+    waitUntil(() -> "fresh1".equals(cache.getObject("key")));
+  }
+
+  @Test
+  void shouldDiscardRefreshOfRemovedEntry() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(60000);
+    AtomicInteger loads = new AtomicInteger();
+    cache.putObject("key", "stale", () -> {
+      cache.removeObject("key");
+      return "fresh" + loads.incrementAndGet();
+    });
+    assertEquals("stale", cache.getObject("key"));
+    waitUntil(() -> loads.get() == 1);
+    assertNull(cache.getObject("key"));
+  }
+
+  @Test
+  void shouldReloadQueryInBackground() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(
+        new Environment("refresh_ahead", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    assertTrue(configuration.getCache(Mapper.class.getName()) instanceof RefreshAheadCache);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("jim", sqlSession.getMapper(Mapper.class).selectNames().get(0));
+    }
+    execute(dataSource, "update author set username = 'ann' where id = 101");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("jim", sqlSession.getMapper(Mapper.class).selectNames().get(0));
+    }
+    waitUntil(() -> {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        return "ann".equals(sqlSession.getMapper(Mapper.class).selectNames().get(0));
+      }
+    });
+  }
+
+  @Test
+  void shouldReloadWithBoundValuesThroughPlugins() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(
+        new Environment("refresh_ahead", new JdbcTransactionFactory(), dataSource));
+    QueryCounter counter = new QueryCounter();
+    configuration.addInterceptor(counter);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    Filter filter = new Filter();
+    filter.setName("NEWS");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(1, sqlSession.getMapper(Mapper.class).countNames(filter));
+    }
+    // the cached entry must not follow later changes of the parameter object
+    filter.setName("VIDEOS");
+    execute(dataSource, "update post set section = 'NEWS' where id = 2");
+    waitUntil(() -> {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        Filter before = new Filter();
+        before.setName("NEWS");
+        return sqlSession.getMapper(Mapper.class).countNames(before) == 2;
+      }
+    });
+    assertTrue(counter.queries.get() > 0);
+  }
+
+  private static void execute(DataSource dataSource, String sql) throws SQLException {
+    try (Connection conn = dataSource.getConnection()) {
+      new SqlRunner(conn).update(sql);
+    }
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the refresh");
+      Thread.sleep(10);
+    }
+  }
+
+  @CacheNamespace(timeToLive = 60000, refreshAhead = 60000)
+  interface Mapper {
+
+    @Select("select username from author where id = 101")
+    List<String> selectNames();
+
+    @Select("select count(*) from post where section = #{name}")
+    int countNames(Filter filter);
+
+  }
+
+  public static class Filter {
+
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+  }
+
+  @Intercepts(@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+      RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }))
+  public static class QueryCounter implements Interceptor {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      queries.incrementAndGet();
+      return invocation.proceed();
+    }
+
+  }
+
+}
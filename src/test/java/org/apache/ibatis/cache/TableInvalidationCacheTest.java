@@ -0,0 +1,214 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.One;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
+import org.apache.ibatis.cache.decorators.TableInvalidationCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class TableInvalidationCacheTest {
+
+  @Test
+  void shouldInvalidateOnlyDependentEntries() {
+    TableInvalidationCache cache = new TableInvalidationCache(new PerpetualCache("default"));
+    cache.putObject("a", "A", Collections.singletonList("a"), null);
+    cache.putObject("ab", "AB", Arrays.asList("a", "b"), null);
+    cache.putObject("b", "B", Collections.singletonList("b"), null);
+    cache.putObject("unknown", "U");
+    cache.invalidate(Collections.singletonList("a"));
+    assertNull(cache.getObject("a"));
+    assertNull(cache.getObject("ab"));
+    assertNull(cache.getObject("unknown"));
+    assertEquals("B", cache.getObject("b"));
+  }
+
+  @Test
+  void shouldTellDependencies() {
+    TableInvalidationCache cache = new TableInvalidationCache(new PerpetualCache("default"));
+    cache.putObject("a", "A", Collections.singletonList("a"), null);
+    cache.putObject("unknown", "U");
+    assertTrue(cache.dependsOn("a", Collections.singletonList("a")));
+    assertFalse(cache.dependsOn("a", Collections.singletonList("b")));
+    assertTrue(cache.dependsOn("a", null));
+    assertTrue(cache.dependsOn("unknown", Collections.singletonList("b")));
+    assertTrue(cache.dependsOn("missing", Collections.singletonList("b")));
+  }
+
+  @Test
+  void shouldAskForLoaderOnlyWhenRefreshingAhead() {
+    TransactionalCache plain = new TransactionalCache(new TableInvalidationCache(new PerpetualCache("default")));
+    plain.putObject("a", "A", () -> Collections.singletonList("a"), () -> fail("No loader expected"));
+    plain.commit();
+    AtomicInteger loaders = new AtomicInteger();
+    TransactionalCache refreshing = new TransactionalCache(
+        new TableInvalidationCache(new RefreshAheadCache(new PerpetualCache("default"))));
+    refreshing.putObject("a", "A", () -> Collections.singletonList("a"), () -> {
+      loaders.incrementAndGet();
+      return () -> "A";
+    });
+    refreshing.commit();
+    assertEquals(1, loaders.get());
+  }
+
+  @Test
+  void shouldClearWhenTablesAreUnknown() {
+    TableInvalidationCache cache = new TableInvalidationCache(new PerpetualCache("default"));
+    cache.putObject("a", "A", Collections.singletonList("a"), null);
+    cache.invalidate(null);
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepCachedResultsOfOtherTablesAfterWrite() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(
+        new Environment("table_invalidation", new JdbcTransactionFactory(), dataSource));
+    configuration.setTableLevelCacheInvalidation(true);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    assertTrue(configuration.getCache(Mapper.class.getName()) instanceof TableInvalidationCache);
+
+    String author;
+    List<String> tags;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      author = mapper.selectAuthorName(101);
+      tags = mapper.selectTagNames(1);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.renameAuthor(101, "ann"));
+      assertEquals("ann", mapper.selectAuthorName(101));
+      assertSame(tags, mapper.selectTagNames(1));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("ann", mapper.selectAuthorName(101));
+      assertNotEquals(author, mapper.selectAuthorName(101));
+      assertSame(tags, mapper.selectTagNames(1));
+      assertEquals(1, mapper.insertTag(4, "sql"));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertNotSame(tags, mapper.selectTagNames(1));
+    }
+  }
+
+  @Test
+  void shouldInvalidateCachedResultsOfNestedSelectsAfterWrite() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(
+        new Environment("table_invalidation", new JdbcTransactionFactory(), dataSource));
+    configuration.setTableLevelCacheInvalidation(true);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("jim", sqlSession.getMapper(Mapper.class).selectPost(1).getAuthorName());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(1, sqlSession.getMapper(Mapper.class).renameAuthor(101, "ann"));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("ann", sqlSession.getMapper(Mapper.class).selectPost(1).getAuthorName());
+    }
+  }
+
+  @CacheNamespace(readWrite = false)
+  interface Mapper {
+
+    @Select("select id, author_id, subject from post where id = #{id}")
+    @Results({ @Result(property = "id", column = "id", id = true), @Result(property = "title", column = "subject"),
+        @Result(property = "authorName", column = "author_id", one = @One(select = "selectAuthorName")) })
+    Post selectPost(int id);
+
+    @Select("select username from author where id = #{id}")
+    String selectAuthorName(int id);
+
+    @Select("select t.name from tag t where t.id <= #{id}")
+    List<String> selectTagNames(int id);
+
+    @Update("update author set username = #{name} where id = #{id}")
+    int renameAuthor(int id, String name);
+
+    @Insert("insert into tag (id, name) values (#{id}, #{name})")
+    @Options(tables = "tag")
+    int insertTag(int id, String name);
+
+  }
+
+  static class Post {
+
+    private int id;
+    private String title;
+    private String authorName;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public void setTitle(String title) {
+      this.title = title;
+    }
+
+    public String getAuthorName() {
+      return authorName;
+    }
+
+    public void setAuthorName(String authorName) {
+      this.authorName = authorName;
+    }
+
+  }
+
+}
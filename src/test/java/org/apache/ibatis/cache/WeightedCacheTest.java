@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  @Test
+  void shouldWeighEntriesByTheSizeOfTheirResultList() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.putObject("small", rows(10));
+    long small = cache.getTotalBytes();
+    cache.clear();
+    cache.putObject("large", rows(1000));
+    long large = cache.getTotalBytes();
+    assertTrue(large > small * 50, "small=" + small + ", large=" + large);
+    assertTrue(large < small * 150, "small=" + small + ", large=" + large);
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntriesToFitTheBudget() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.putObject("probe", rows(100));
+    long weight = cache.getTotalBytes();
+    cache.clear();
+    cache.setMaxBytes(weight * 3 + weight / 2);
+    for (int i = 0; i < 3; i++) {
+      cache.putObject(i, rows(100));
+    }
+    assertNotNull(cache.getObject(0));
+    cache.putObject(3, rows(100));
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(0));
+    assertEquals(3, cache.getSize());
+    assertTrue(cache.getTotalBytes() <= cache.getMaxBytes());
+
+    cache.putObject(4, rows(250));
+    assertEquals(1, cache.getSize());
+    assertNotNull(cache.getObject(4));
+  }
+
+  @Test
+  void shouldNotCacheEntriesLargerThanTheBudget() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaxBytes(10_000);
+    cache.putObject("small", rows(1));
+    cache.putObject("large", rows(1000));
+    assertNotNull(cache.getObject("small"));
+    assertNull(cache.getObject("large"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldReleaseWeightOnRemoveAndClear() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.putObject("a", rows(10));
+    long weight = cache.getTotalBytes();
+    cache.putObject("a", rows(10));
+    assertEquals(weight, cache.getTotalBytes());
+    cache.putObject("b", rows(10));
+    cache.removeObject("a");
+    assertEquals(weight, cache.getTotalBytes());
+    cache.clear();
+    assertEquals(0, cache.getTotalBytes());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldBeConfiguredAsEvictionPolicy() {
+    Properties properties = new Properties();
+    properties.setProperty("maxBytes", "1024");
+    Cache cache = new CacheBuilder("weighted")
+        .addDecorator(new Configuration().getTypeAliasRegistry().resolveAlias("WEIGHTED"))
+        .properties(properties)
+        .readWrite(false)
+        .build();
+    cache.putObject("large", rows(100));
+    assertNull(cache.getObject("large"));
+    cache.putObject("small", rows(1));
+    assertNotNull(cache.getObject("small"));
+  }
+
+  private static List<Row> rows(int count) {
+    List<Row> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(new Row(i, "name" + i, i % 2 == 0 ? "a row with a somewhat longer description" : "short"));
+    }
+    return rows;
+  }
+
+  static class Row {
+    private final long id;
+    private final String name;
+    private final String description;
+    private final Row self;
+
+    Row(long id, String name, String description) {
+      this.id = id;
+      this.name = name;
+      this.description = description;
+      this.self = this;
+    }
+  }
+
+}
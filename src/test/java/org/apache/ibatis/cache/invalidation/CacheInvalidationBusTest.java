@@ -0,0 +1,237 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBusTest {
+
+  private DataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    dataSource = BaseDataTest.createBlogDataSource();
+  }
+
+  @Test
+  void shouldClearCacheOfOtherNode() {
+    LoopbackTransport transport = new LoopbackTransport();
+    SqlSessionFactory node1 = createNode(transport, false);
+    SqlSessionFactory node2 = createNode(transport, false);
+    List<String> cached = selectAuthorNames(node1);
+    assertSame(cached, selectAuthorNames(node1));
+    renameAuthor(node2, "ann");
+    List<String> reloaded = selectAuthorNames(node1);
+    assertNotSame(cached, reloaded);
+    assertEquals("ann", reloaded.get(0));
+  }
+
+  @Test
+  void shouldInvalidateTablesOnOtherNode() {
+    LoopbackTransport transport = new LoopbackTransport();
+    SqlSessionFactory node1 = createNode(transport, true);
+    SqlSessionFactory node2 = createNode(transport, true);
+    List<String> authors = selectAuthorNames(node1);
+    List<String> tags = selectTagNames(node1);
+    renameAuthor(node2, "ann");
+    assertNotSame(authors, selectAuthorNames(node1));
+    assertSame(tags, selectTagNames(node1));
+  }
+
+  @Test
+  void shouldClearAllCachesWhenMessagesAreLost() {
+    LossyTransport transport = new LossyTransport();
+    SqlSessionFactory node1 = createNode(transport, true);
+    SqlSessionFactory node2 = createNode(transport, true);
+    renameAuthor(node2, "ann");
+    List<String> tags = selectTagNames(node1);
+    transport.dropNext = true;
+    renameAuthor(node2, "bob");
+    assertSame(tags, selectTagNames(node1));
+    renameAuthor(node2, "tom");
+    assertNotSame(tags, selectTagNames(node1));
+  }
+
+  @Test
+  void shouldIgnoreOwnMessages() {
+    CacheInvalidationBus bus = new CacheInvalidationBus(new LoopbackTransport(), "node");
+    Configuration configuration = new Configuration();
+    configuration.setCacheInvalidationBus(bus);
+    assertThrows(IllegalStateException.class, () -> bus.attach(new Configuration()));
+    configuration.addMapper(Mapper.class);
+    configuration.getCache(Mapper.class.getName()).putObject("key", "value");
+    bus.receive(new CacheInvalidationMessage("node", 1,
+        Collections.singletonList(new CacheInvalidation(Mapper.class.getName(), null))));
+    assertEquals("value", configuration.getCache(Mapper.class.getName()).getObject("key"));
+  }
+
+  @Test
+  void shouldPublishMessagesInSequenceOrder() throws InterruptedException {
+    List<Long> sequences = new ArrayList<>();
+    CacheInvalidationBus bus = new CacheInvalidationBus(new LoopbackTransport() {
+      @Override
+      public void publish(CacheInvalidationMessage message) {
+        if (message.getSequence() % 2 == 1) {
+          // gives the next message a chance to overtake this one
+          sleep(1);
+        }
+        synchronized (sequences) {
+          sequences.add(message.getSequence());
+        }
+      }
+    });
+    List<CacheInvalidation> invalidations = Collections.singletonList(new CacheInvalidation("cache", null));
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 50; j++) {
+          bus.publish(invalidations);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(400, sequences.size());
+    for (int i = 0; i < sequences.size(); i++) {
+      assertEquals(i + 1, sequences.get(i));
+    }
+  }
+
+  @Test
+  void shouldNotBlockOtherPublishersWhileSending() throws InterruptedException {
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+    CacheInvalidationBus bus = new CacheInvalidationBus(new LoopbackTransport() {
+      @Override
+      public void publish(CacheInvalidationMessage message) {
+        if (message.getSequence() == 1) {
+          sending.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        sequences.add(message.getSequence());
+      }
+    });
+    List<CacheInvalidation> invalidations = Collections.singletonList(new CacheInvalidation("cache", null));
+    Thread slow = new Thread(() -> bus.publish(invalidations));
+    slow.start();
+    assertTrue(sending.await(5, TimeUnit.SECONDS));
+    Thread fast = new Thread(() -> bus.publish(invalidations));
+    fast.start();
+    try {
+      // returns although the first message is still being sent
+      fast.join(5000);
+      assertFalse(fast.isAlive());
+      assertTrue(sequences.isEmpty());
+    } finally {
+      release.countDown();
+    }
+    slow.join();
+    assertEquals(Arrays.asList(1L, 2L), sequences);
+  }
+
+  private SqlSessionFactory createNode(CacheInvalidationTransport transport, boolean tableLevel) {
+    Configuration configuration = new Configuration(
+        new Environment("cache_invalidation", new JdbcTransactionFactory(), dataSource));
+    configuration.setTableLevelCacheInvalidation(tableLevel);
+    configuration.setCacheInvalidationBus(new CacheInvalidationBus(transport));
+    configuration.addMapper(Mapper.class);
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  private static List<String> selectAuthorNames(SqlSessionFactory sqlSessionFactory) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(Mapper.class).selectAuthorNames();
+    }
+  }
+
+  private static List<String> selectTagNames(SqlSessionFactory sqlSessionFactory) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(Mapper.class).selectTagNames();
+    }
+  }
+
+  private static void renameAuthor(SqlSessionFactory sqlSessionFactory, String name) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).renameAuthor(name);
+      sqlSession.commit();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static class LossyTransport extends LoopbackTransport {
+    boolean dropNext;
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+      if (dropNext) {
+        dropNext = false;
+        return;
+      }
+      super.publish(message);
+    }
+  }
+
+  @CacheNamespace(readWrite = false)
+  interface Mapper {
+
+    @Select("select username from author where id = 101")
+    List<String> selectAuthorNames();
+
+    @Select("select name from tag")
+    List<String> selectTagNames();
+
+    @Update("update author set username = #{name} where id = 101")
+    int renameAuthor(String name);
+
+  }
+
+}
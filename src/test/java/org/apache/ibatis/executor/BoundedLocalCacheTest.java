@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOLDER;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class BoundedLocalCacheTest {
+
+  @Test
+  void shouldEvictLeastRecentlyUsedResults() {
+    BoundedLocalCache cache = new BoundedLocalCache("test", 2, null, null);
+    cache.putObject("a", Collections.singletonList(1));
+    cache.putObject("b", Collections.singletonList(2));
+    cache.putObject("c", Collections.singletonList(3));
+    cache.getObject("a");
+    assertEquals(3, cache.getSize());
+    assertEquals(Collections.singletonList("b"), cache.evictExcess());
+    assertNotNull(cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    assertNotNull(cache.getObject("c"));
+  }
+
+  @Test
+  void shouldEvictUntilRowLimitIsMet() {
+    BoundedLocalCache cache = new BoundedLocalCache("test", null, 4, null);
+    cache.putObject("a", Arrays.asList(1, 2));
+    cache.putObject("b", Arrays.asList(1, 2));
+    cache.putObject("c", Arrays.asList(1, 2, 3));
+    assertEquals(Arrays.asList("a", "b"), cache.evictExcess());
+    cache.putObject("c", Collections.singletonList(1));
+    cache.putObject("d", Arrays.asList(1, 2, 3));
+    assertTrue(cache.evictExcess().isEmpty());
+  }
+
+  @Test
+  void shouldDropResultsOverPerQueryLimit() {
+    BoundedLocalCache cache = new BoundedLocalCache("test", null, null, 2);
+    cache.putObject("small", Arrays.asList(1, 2));
+    cache.putObject("large", Arrays.asList(1, 2, 3));
+    assertEquals(Collections.singletonList("large"), cache.evictExcess());
+    assertNotNull(cache.getObject("small"));
+    cache.putObject("large", Arrays.asList(1, 2, 3));
+    cache.putObject("large", Collections.singletonList(1));
+    assertTrue(cache.evictExcess().isEmpty());
+    assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  void shouldNeverEvictExecutionPlaceholders() {
+    BoundedLocalCache cache = new BoundedLocalCache("test", 0, 0, 0);
+    cache.putObject("running", EXECUTION_PLACEHOLDER);
+    cache.putObject("done", Collections.singletonList(1));
+    assertEquals(Collections.singletonList("done"), cache.evictExcess());
+    assertSame(EXECUTION_PLACEHOLDER, cache.getObject("running"));
+    cache.putObject("running", Collections.singletonList(1));
+    assertEquals(1, cache.getSize());
+    assertEquals(Collections.singletonList("running"), cache.evictExcess());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldBoundLocalCacheOfSession() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(
+        new Environment("bounded", new JdbcTransactionFactory(), dataSource));
+    configuration.setLocalCacheSize(1);
+    configuration.setLocalCacheMaxRowsPerQuery(2);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Integer> one = mapper.selectUpTo(1);
+      assertSame(one, mapper.selectUpTo(1));
+      List<Integer> all = mapper.selectUpTo(3);
+      assertEquals(3, all.size());
+      assertNotSame(all, mapper.selectUpTo(3));
+      assertSame(one, mapper.selectUpTo(1));
+      mapper.selectUpTo(2);
+      assertNotSame(one, mapper.selectUpTo(1));
+    }
+  }
+
+  interface Mapper {
+
+    @Select("select id from post where id <= #{max} order by id")
+    List<Integer> selectUpTo(int max);
+
+  }
+
+}
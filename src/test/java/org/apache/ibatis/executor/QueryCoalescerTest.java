@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QueryCoalescerTest {
+
+  private static final AtomicInteger executions = new AtomicInteger();
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  public static int slowCount() throws InterruptedException {
+    Thread.sleep(300);
+    return executions.incrementAndGet();
+  }
+
+  @BeforeEach
+  void setUp() throws IOException, SQLException {
+    DataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:query_coalescer", "sa",
+        "");
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/executor/QueryCoalescerTest.sql");
+    Configuration configuration = new Configuration(
+        new Environment("query_coalescer", new JdbcTransactionFactory(), dataSource));
+    configuration.setCoalesceQueries(true);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    executions.set(0);
+  }
+
+  @Test
+  void shouldShareConcurrentIdenticalQueries() throws Exception {
+    int threads = 8;
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<Integer>>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executorService.submit(() -> {
+          try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            barrier.await();
+            return sqlSession.getMapper(Mapper.class).slowCount();
+          }
+        }));
+      }
+      List<List<Integer>> results = new ArrayList<>();
+      for (Future<List<Integer>> future : futures) {
+        results.add(future.get());
+      }
+      assertEquals(1, executions.get());
+      for (List<Integer> result : results) {
+        assertEquals(1, result.get(0));
+        assertEquals(1, results.stream().filter(other -> other == result).count());
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotShareQueriesOfSessionWithChanges() throws Exception {
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertItem(1);
+      Future<List<Integer>> other = executorService.submit(() -> {
+        try (SqlSession otherSession = sqlSessionFactory.openSession()) {
+          return otherSession.getMapper(Mapper.class).slowCount();
+        }
+      });
+      Thread.sleep(100);
+      List<Integer> mine = mapper.slowCount();
+      assertEquals(2, executions.get());
+      assertEquals(3, mine.get(0) + other.get().get(0));
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldRunQueryWhenSharedQueryDoesNotReturnWithinTimeout() throws Exception {
+    Configuration configuration = new Configuration();
+    CacheKey key = new CacheKey(new Object[] { "stuck" });
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<Integer>> leader = executorService.submit(() -> QueryCoalescer.query(configuration, key, null, () -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Collections.singletonList(1);
+      }));
+      started.await();
+      long start = System.nanoTime();
+      List<Integer> own = QueryCoalescer.query(configuration, key, 1, () -> Collections.singletonList(2));
+      assertTrue(System.nanoTime() - start >= 1_000_000_000L);
+      assertEquals(Collections.singletonList(2), own);
+      release.countDown();
+      assertEquals(Collections.singletonList(1), leader.get());
+    } finally {
+      release.countDown();
+      executorService.shutdownNow();
+    }
+  }
+
+  interface Mapper {
+
+    @Select("values (slow_count())")
+    List<Integer> slowCount();
+
+    @Insert("insert into item (id) values (#{id})")
+    int insertItem(int id);
+
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class SqlTablesTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldFindTablesReadBySelect() {
+    assertEquals(tables("author", "blog", "post", "tag"), SqlTables.of(statement(SqlCommandType.SELECT, null),
+        "SELECT a.name FROM author a, blog AS b LEFT OUTER JOIN post p ON p.blog_id = b.id"
+            + " WHERE b.id IN (select blog_id from \"PUBLIC\".\"TAG\" where name = 'from x')"));
+  }
+
+  @Test
+  void shouldFindTablesWrittenByUpdates() {
+    MappedStatement ms = statement(SqlCommandType.INSERT, null);
+    assertEquals(tables("author"), SqlTables.of(ms, "insert into author (id) select id from blog"));
+    assertEquals(tables("author"), SqlTables.of(ms, "update `author` set name = ?"));
+    assertEquals(tables("author", "blog"), SqlTables.of(ms, "delete from author; delete blog where id = 1"));
+  }
+
+  @Test
+  void shouldNotKnowTablesOfOtherStatements() {
+    assertNull(SqlTables.of(statement(SqlCommandType.UPDATE, null), "create table author (id int)"));
+    assertNull(SqlTables.of(statement(SqlCommandType.SELECT, null), "call next_author()"));
+  }
+
+  @Test
+  void shouldPreferDeclaredTables() {
+    assertEquals(tables("author", "blog"),
+        SqlTables.of(statement(SqlCommandType.UPDATE, "Author, blog"), "call rename_author(?)"));
+  }
+
+  private MappedStatement statement(SqlCommandType sqlCommandType, String tables) {
+    return new MappedStatement.Builder(configuration, "statement", new StaticSqlSource(configuration, "select 1"),
+        sqlCommandType).statementType(StatementType.PREPARED).tables(tables).build();
+  }
+
+  private static HashSet<String> tables(String... tables) {
+    return new HashSet<>(Arrays.asList(tables));
+  }
+
+}
@@ -48,6 +48,20 @@ class JavassistProxyTest extends SerializableProxyTest {
     assertTrue(author2 instanceof Proxy);
   }
 
+  @Test
+  void shouldReuseProxyClassForSameType() {
+    ResultLoaderMap loader = new ResultLoaderMap();
+    loader.addLoader("bio", null, null);
+    Author proxy = (Author) proxyFactory.createProxy(author, loader, new Configuration(), new DefaultObjectFactory(), new ArrayList<>(), new ArrayList<>());
+    Object other = proxyFactory.createProxy(author, new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), new ArrayList<>(), new ArrayList<>());
+    assertSame(proxy.getClass(), other.getClass());
+    assertEquals(author.getUsername(), proxy.getUsername());
+    assertEquals(1, loader.size());
+    proxy.setBio("set before loading");
+    assertEquals(0, loader.size());
+    assertEquals("set before loading", proxy.getBio());
+  }
+
   @Test
   void shouldFailCallingAnUnloadedProperty() {
     // yes, it must go in uppercase
@@ -0,0 +1,144 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnBatchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    DataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:column_batch", "sa", "");
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/executor/result/ColumnBatchTest.sql");
+    Configuration configuration = new Configuration(
+        new Environment("column_batch", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void shouldReadColumnsIntoPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnBatch batch = sqlSession.selectColumns(Mapper.class.getName() + ".metrics");
+      assertEquals(200, batch.getRowCount());
+      assertEquals(5, batch.getColumnCount());
+      assertEquals("BUCKET", batch.getColumnLabel(2));
+      assertEquals(2, batch.getColumn("bucket"));
+
+      long[] ids = batch.getLongs(1);
+      assertEquals(200, ids.length);
+      assertEquals(1L, ids[0]);
+      assertEquals(200L, ids[199]);
+      assertSame(ids, batch.getLongs(1));
+      assertEquals(2, batch.getInts(2)[1]);
+      assertEquals(0.5, batch.getDoubles(3)[0]);
+      assertEquals(new BigDecimal("3.00"), batch.getObjects(4)[1]);
+      assertEquals("m1", batch.getObjects(5)[0]);
+
+      assertTrue(batch.isNull(3, 6));
+      assertEquals(0.0, batch.getDoubles(3)[6]);
+      assertNull(batch.getObjects(3)[6]);
+      assertNull(batch.getObjects(5)[6]);
+      assertFalse(batch.isNull(1, 6));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnBatch batch = sqlSession.selectColumns(Mapper.class.getName() + ".metrics", null, new RowBounds(10, 5));
+      assertArrayEquals(new long[] { 11, 12, 13, 14, 15 }, batch.getLongs(1));
+    }
+  }
+
+  @Test
+  void shouldReturnColumnBatchFromMapper() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnBatch batch = sqlSession.getMapper(Mapper.class).batch(new RowBounds(0, 3));
+      assertEquals(3, batch.getRowCount());
+      assertArrayEquals(new long[] { 1, 2, 3 }, batch.getLongs(1));
+    }
+  }
+
+  @Test
+  void shouldMapPrimitiveArraysFromMapper() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      long[] ids = mapper.ids(100);
+      assertEquals(100, ids.length);
+      assertEquals(100L, ids[99]);
+      int[] buckets = mapper.buckets();
+      assertEquals(200, buckets.length);
+      assertEquals(1, buckets[0]);
+      assertEquals(1.0, mapper.values()[1]);
+      // mapped with type handlers, which the columnar reader does not apply
+      assertArrayEquals(new int[] { 1, 2, 0 }, mapper.bucketCodes(3));
+    }
+  }
+
+  @Test
+  void shouldRejectValuesThatAreNotNumbers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnBatch batch = sqlSession.selectColumns(Mapper.class.getName() + ".metrics");
+      assertThrows(PersistenceException.class, () -> batch.getLongs(5));
+      assertThrows(PersistenceException.class, () -> batch.getLongs(6));
+      assertThrows(PersistenceException.class, () -> batch.getColumn("missing"));
+    }
+  }
+
+  interface Mapper {
+
+    @Select("select id, bucket, amount, price, name from metric order by id")
+    ColumnBatch metrics();
+
+    @Select("select id from metric where id <= #{max} order by id")
+    long[] ids(int max);
+
+    @Select("select bucket from metric order by id")
+    int[] buckets();
+
+    @Select("select amount from metric where amount is not null order by id")
+    double[] values();
+
+    @Select("select cast(bucket as varchar(5)) from metric where id <= #{max} order by id")
+    int[] bucketCodes(int max);
+
+    @Select("select id, amount from metric order by id")
+    ColumnBatch batch(RowBounds rowBounds);
+
+  }
+
+}
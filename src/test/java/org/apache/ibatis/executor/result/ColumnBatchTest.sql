@@ -0,0 +1,31 @@
+--
+--    Copyright 2009-2022 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table metric if exists;
+
+create table metric (
+  id bigint,
+  bucket int,
+  amount double,
+  price decimal(10, 2),
+  name varchar(20)
+);
+
+insert into metric
+  select x, mod(x, 3), cast(x as double) / 2, x * 1.5, 'm' || cast(x as varchar(5))
+  from unnest(sequence_array(1, 200, 1)) as t(x);
+
+update metric set amount = null, name = null where id = 7;
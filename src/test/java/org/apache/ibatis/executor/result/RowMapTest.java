@@ -0,0 +1,167 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class RowMapTest {
+
+  private final RowMap.Schema schema = new RowMap.Schema(Arrays.asList("ID", "NAME", "ID", "PRICE"));
+
+  @Test
+  void shouldDedupeSchemaKeys() {
+    assertEquals(3, schema.size());
+    assertEquals(0, schema.indexOf("ID"));
+    assertEquals(1, schema.indexOf("NAME"));
+    assertEquals(2, schema.indexOf("PRICE"));
+    assertEquals(-1, schema.indexOf("OTHER"));
+  }
+
+  @Test
+  void shouldReadAndWriteColumnsInPlace() {
+    RowMap row = new RowMap(schema);
+    assertTrue(row.isEmpty());
+    assertNull(row.put("PRICE", 10));
+    assertNull(row.put("ID", 1));
+    assertNull(row.put("NAME", null));
+    assertEquals(3, row.size());
+    assertTrue(row.containsKey("NAME"));
+    assertNull(row.get("NAME"));
+    assertEquals(1, row.put("ID", 2));
+    assertEquals(2, row.get("ID"));
+    assertEquals("[ID, NAME, PRICE]", row.keySet().toString());
+
+    assertEquals(10, row.remove("PRICE"));
+    assertNull(row.remove("PRICE"));
+    assertFalse(row.containsKey("PRICE"));
+    assertEquals("{ID=2, NAME=null}", row.toString());
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("ID", 2);
+    expected.put("NAME", null);
+    assertEquals(expected, row);
+    assertEquals(row, expected);
+    assertEquals(expected.hashCode(), row.hashCode());
+  }
+
+  @Test
+  void shouldUpdateThroughEntriesAndIterator() {
+    RowMap row = new RowMap(schema);
+    row.put("ID", 1);
+    row.put("NAME", "a");
+    row.put("PRICE", 3);
+    for (Map.Entry<String, Object> entry : row.entrySet()) {
+      if ("NAME".equals(entry.getKey())) {
+        assertEquals("a", entry.setValue("b"));
+      }
+    }
+    assertEquals("b", row.get("NAME"));
+    Iterator<String> keys = row.keySet().iterator();
+    keys.next();
+    keys.remove();
+    assertFalse(row.containsKey("ID"));
+    assertEquals(2, row.size());
+    row.clear();
+    assertTrue(row.isEmpty());
+  }
+
+  @Test
+  void shouldCopyRowWhenAddingUnknownKey() {
+    RowMap row = new RowMap(schema);
+    row.put("ID", 1);
+    row.put("NAME", "a");
+    Iterator<String> keys = row.keySet().iterator();
+    assertNull(row.put("EXTRA", true));
+    assertThrows(ConcurrentModificationException.class, keys::hasNext);
+    assertEquals("{ID=1, NAME=a, EXTRA=true}", row.toString());
+    assertEquals(1, row.remove("ID"));
+    assertEquals(2, row.size());
+    assertEquals(-1, schema.indexOf("EXTRA"));
+
+    RowMap other = new RowMap(schema);
+    other.put("ID", 2);
+    assertNull(other.get("EXTRA"));
+    assertEquals(1, other.size());
+  }
+
+  @Test
+  void shouldSerialize() throws Exception {
+    RowMap row = new RowMap(schema);
+    row.put("ID", 1);
+    row.put("PRICE", null);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(row);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      RowMap copy = (RowMap) in.readObject();
+      assertEquals(row, copy);
+      assertFalse(copy.containsKey("NAME"));
+      assertNull(copy.put("NAME", "a"));
+      assertEquals(3, copy.size());
+    }
+  }
+
+  @Test
+  void shouldReturnRowMapsForResultTypeMap() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(new Environment("row_map", new JdbcTransactionFactory(), dataSource));
+    configuration.setCallSettersOnNulls(true);
+    configuration.addMapper(Mapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> rows = sqlSession.getMapper(Mapper.class).items();
+      assertEquals(2, rows.size());
+      assertTrue(rows.get(0) instanceof RowMap);
+      assertEquals(101, rows.get(0).get("ID"));
+      assertEquals("jim", rows.get(0).get("USERNAME"));
+      assertTrue(rows.get(1).containsKey("BIO"));
+      assertNull(rows.get(1).get("BIO"));
+      assertEquals("[ID, USERNAME, BIO]", rows.get(1).keySet().toString());
+    }
+  }
+
+  interface Mapper {
+
+    @Select("select id, username, bio from author order by id")
+    List<Map<String, Object>> items();
+
+  }
+
+}
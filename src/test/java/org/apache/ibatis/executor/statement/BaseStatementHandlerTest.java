@@ -26,6 +26,7 @@ import java.sql.Statement;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -145,4 +146,46 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void specifyAdaptiveFetchSizeUsesDefaultUntilExecuted() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        configuration.setDefaultFetchSize(100);
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id",
+            new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).build();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(100); // apply a default fetch size
+    }
+
+    @Test
+    void specifyAdaptiveFetchSizeFromObservedRowCounts() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        configuration.setDefaultFetchSize(100);
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id",
+            new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).build();
+        for (int i = 0; i < 10; i++) {
+          mappedStatement.getRowCountStatistics().record(300);
+        }
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(512); // apply an adaptive fetch size
+    }
+
+    @Test
+    void specifyMappedStatementFetchSizeAndAdaptiveFetchSize() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id",
+            new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).fetchSize(50).build();
+        mappedStatement.getRowCountStatistics().record(300);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(50); // apply a mapped statement fetch size
+    }
+
 }
@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PackageIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldWriteIndexOfCompiledClasses() throws Exception {
+    Path classes = compile("indexed", true,
+        "pkg/a/Foo.java", "package pkg.a; public class Foo { public static class Inner {} }",
+        "pkg/a/sub/Bar.java", "package pkg.a.sub; public interface Bar {}");
+    List<String> lines = Files.readAllLines(classes.resolve(PackageIndex.RESOURCE), StandardCharsets.UTF_8);
+    assertEquals(Arrays.asList("pkg.a.Foo class", "pkg.a.Foo$Inner class member", "pkg.a.sub.Bar interface"), lines);
+  }
+
+  @Test
+  void shouldRecordFactsUsedByRegistries() throws Exception {
+    Path classes = compile("indexed", true,
+        "pkg/a/Named.java", "package pkg.a; @org.apache.ibatis.type.Alias(\"named\") public abstract class Named {}",
+        "pkg/a/Handler.java", "package pkg.a; @org.apache.ibatis.type.MappedTypes(String.class)"
+            + " public class Handler extends org.apache.ibatis.type.StringTypeHandler {}");
+    List<String> lines = Files.readAllLines(classes.resolve(PackageIndex.RESOURCE), StandardCharsets.UTF_8);
+    assertEquals(Arrays.asList("pkg.a.Handler class mapped-types type-handler", "pkg.a.Named class abstract alias"),
+        lines);
+  }
+
+  @Test
+  void shouldNotLoadIndexedClassesThatCannotMatch() throws Exception {
+    Path classes = compile("indexed", true,
+        "pkg/a/Foo.java", "package pkg.a; public class Foo {}",
+        "pkg/a/Bar.java", "package pkg.a; public interface Bar {}");
+    List<String> examined = new ArrayList<>();
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, null)) {
+      ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+      resolverUtil.setClassLoader(loader);
+      resolverUtil.find(new ResolverUtil.Test() {
+        @Override
+        public boolean matches(Class<?> type) {
+          examined.add(type.getName());
+          return true;
+        }
+
+        @Override
+        public boolean mayMatch(IndexedClass type) {
+          return type.isInterface();
+        }
+      }, "pkg.a");
+    }
+    assertEquals(Arrays.asList("pkg.a.Bar"), examined);
+  }
+
+  @Test
+  void shouldDropDeletedClassesFromIndexOnIncrementalBuild() throws Exception {
+    Path classes = compile("indexed", true,
+        "pkg/a/Foo.java", "package pkg.a; public class Foo {}",
+        "pkg/a/Bar.java", "package pkg.a; public class Bar {}",
+        "pkg/a/Baz.java", "package pkg.a; public class Baz {}");
+    Files.delete(classes.resolve("pkg/a/Bar.class"));
+    compile("indexed", true, "pkg/a/Foo.java", "package pkg.a; public class Foo {}");
+    List<String> lines = Files.readAllLines(classes.resolve(PackageIndex.RESOURCE), StandardCharsets.UTF_8);
+    assertEquals(Arrays.asList("pkg.a.Baz class", "pkg.a.Foo class"), lines);
+  }
+
+  @Test
+  void shouldResolvePackageFromIndex() throws Exception {
+    Path classes = compile("indexed", true,
+        "pkg/a/Foo.java", "package pkg.a; public class Foo { public static class Inner {} }",
+        "pkg/a/sub/Bar.java", "package pkg.a.sub; public interface Bar {}");
+    // a class file missing from the index is not seen, showing the package is not scanned
+    Files.copy(classes.resolve("pkg/a/Foo.class"), classes.resolve("pkg/a/Stray.class"));
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, null)) {
+      assertEquals(new TreeSet<>(Arrays.asList("pkg.a.Foo", "pkg.a.Foo$Inner", "pkg.a.sub.Bar")),
+          find(loader, "pkg.a"));
+      assertEquals(new TreeSet<>(Arrays.asList("pkg.a.sub.Bar")), find(loader, "pkg.a.sub"));
+    }
+  }
+
+  @Test
+  void shouldScanPackageNotCoveredByIndex() throws Exception {
+    Path indexed = compile("indexed", true, "pkg/a/Foo.java", "package pkg.a; public class Foo {}");
+    Path scanned = compile("scanned", false, "pkg/a/Baz.java", "package pkg.a; public class Baz {}");
+    try (URLClassLoader loader = new URLClassLoader(
+        new URL[] { indexed.toUri().toURL(), scanned.toUri().toURL() }, null)) {
+      assertEquals(new TreeSet<>(Arrays.asList("pkg.a.Baz", "pkg.a.Foo")), find(loader, "pkg.a"));
+    }
+  }
+
+  private static Set<String> find(ClassLoader loader, String packageName) {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    thread.setContextClassLoader(loader);
+    try {
+      ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+      resolverUtil.setClassLoader(loader);
+      resolverUtil.find(new ResolverUtil.IsA(Object.class), packageName);
+      Set<String> names = new TreeSet<>();
+      resolverUtil.getClasses().forEach(type -> names.add(type.getName()));
+      return names;
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private Path compile(String name, boolean index, String... pathsAndSources) throws IOException {
+    Path sources = Files.createDirectories(tempDir.resolve(name + "-src"));
+    Path classes = Files.createDirectories(tempDir.resolve(name));
+    String[] files = new String[pathsAndSources.length / 2];
+    for (int i = 0; i < pathsAndSources.length; i += 2) {
+      Path source = sources.resolve(pathsAndSources[i]);
+      Files.createDirectories(source.getParent());
+      Files.write(source, pathsAndSources[i + 1].getBytes(StandardCharsets.UTF_8));
+      files[i / 2] = source.toString();
+    }
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    String[] options = index
+        ? new String[] { "-d", classes.toString(), "-processor", PackageIndexProcessor.class.getName() }
+        : new String[] { "-d", classes.toString(), "-proc:none" };
+    String[] args = Arrays.copyOf(options, options.length + files.length);
+    System.arraycopy(files, 0, args, options.length, files.length);
+    assertEquals(0, compiler.run(null, null, null, args));
+    return classes;
+  }
+
+}
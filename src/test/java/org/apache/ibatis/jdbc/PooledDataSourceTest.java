@@ -18,9 +18,13 @@ package org.apache.ibatis.jdbc;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.BooleanSupplier;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
@@ -85,4 +89,140 @@ class PooledDataSourceTest extends BaseDataTest {
     JDBCConnection realConnection = (JDBCConnection) PooledDataSource.unwrapConnection(c);
     c.close();
   }
+
+  @Test
+  void shouldReusePreparedStatementAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(2);
+      String sql = "SELECT COUNT(*) FROM PRODUCT WHERE CATEGORY = ?";
+      PreparedStatement first;
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement(sql);
+        first = ps.unwrap(PreparedStatement.class);
+        ps.setString(1, "FISH");
+        ps.setMaxRows(1);
+        try (ResultSet rs = ps.executeQuery()) {
+          assertTrue(rs.next());
+        }
+        ps.close();
+        assertTrue(ps.isClosed());
+        assertThrows(SQLException.class, () -> ps.setString(1, "DOGS"));
+      }
+      try (Connection c = ds.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        assertSame(first, ps.unwrap(PreparedStatement.class));
+        assertSame(c, ps.getConnection());
+        assertEquals(0, ps.getMaxRows());
+        // the statement is not shared while in use
+        try (PreparedStatement other = c.prepareStatement(sql)) {
+          assertNotSame(first, other.unwrap(PreparedStatement.class));
+        }
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldCloseEvictedPreparedStatements() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(1);
+      PreparedStatement evicted;
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT * FROM PRODUCT");
+        evicted = ps.unwrap(PreparedStatement.class);
+        ps.close();
+        c.prepareStatement("SELECT * FROM ITEM").close();
+      }
+      assertTrue(evicted.isClosed());
+      try (Connection c = ds.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT * FROM PRODUCT")) {
+        assertNotSame(evicted, ps.unwrap(PreparedStatement.class));
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotCachePreparedStatementsByDefault() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(1);
+      PreparedStatement first;
+      try (Connection c = ds.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT * FROM PRODUCT")) {
+        first = ps;
+      }
+      assertTrue(first.isClosed());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldOpenMinimumIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMinimumIdleConnections(3);
+      ds.setPoolMaintenanceInterval(20);
+      waitUntil(() -> ds.getPoolState().getIdleConnectionCount() == 3);
+      assertEquals(0, ds.getPoolState().getRequestCount());
+      try (Connection c = ds.getConnection()) {
+        // the connection taken out is replaced in the background
+        waitUntil(() -> ds.getPoolState().getIdleConnectionCount() >= 3);
+      }
+    } finally {
+      ds.stopMaintenance();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldRetireIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaintenanceInterval(20);
+      ds.setPoolMinimumIdleConnections(1);
+      ds.setPoolMaximumIdleTime(200);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertTrue(ds.getPoolState().getIdleConnectionCount() >= 3);
+      waitUntil(() -> ds.getPoolState().getIdleConnectionCount() == 1);
+    } finally {
+      ds.stopMaintenance();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotReturnExpiredConnectionToPool() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumLifetime(1);
+      Connection c = ds.getConnection();
+      Thread.sleep(10);
+      c.close();
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the pool maintenance");
+      Thread.sleep(10);
+    }
+  }
 }
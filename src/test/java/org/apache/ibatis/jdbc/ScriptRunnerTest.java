@@ -26,6 +26,8 @@ import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -285,4 +287,58 @@ class ScriptRunnerTest extends BaseDataTest {
     verify(stmt, Mockito.times(1)).execute(eq("line 1;" + LINE_SEPARATOR + "line 2;" + LINE_SEPARATOR + LINE_SEPARATOR));
     verify(stmt, Mockito.times(1)).execute(eq("line 3" + LINE_SEPARATOR));
   }
+
+  @Test
+  void shouldBatchConsecutiveDmlStatements() throws Exception {
+    Connection conn = mock(Connection.class);
+    Statement stmt = mock(Statement.class);
+    when(conn.createStatement()).thenReturn(stmt);
+    when(stmt.getUpdateCount()).thenReturn(-1);
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.setBatchSize(2);
+
+    String sql = "create table t (id int);\n"
+        + "insert into t values (1);\n"
+        + "insert into t values (2);\n"
+        + "INSERT into t values (3);\n"
+        + "update t set id = 4;\n"
+        + "create index i on t (id);\n";
+    runner.runScript(new StringReader(sql));
+
+    verify(stmt).execute("create table t (id int)" + LINE_SEPARATOR);
+    verify(stmt).addBatch("insert into t values (1)" + LINE_SEPARATOR);
+    verify(stmt).addBatch("insert into t values (2)" + LINE_SEPARATOR);
+    verify(stmt).addBatch("INSERT into t values (3)" + LINE_SEPARATOR);
+    verify(stmt).addBatch("update t set id = 4" + LINE_SEPARATOR);
+    verify(stmt).execute("create index i on t (id)" + LINE_SEPARATOR);
+    verify(stmt, times(2)).executeBatch();
+    verify(stmt, never()).execute(startsWith("insert"));
+  }
+
+  @Test
+  void shouldCommitPeriodicallyAndReportProgress() throws Exception {
+    Connection conn = mock(Connection.class);
+    Statement stmt = mock(Statement.class);
+    when(conn.createStatement()).thenReturn(stmt);
+    when(conn.getAutoCommit()).thenReturn(true, false);
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.setBatchSize(10);
+    runner.setCommitInterval(3);
+    runner.setProgressInterval(2);
+    List<String> progress = new ArrayList<>();
+    runner.setProgressListener((lines, statements) -> progress.add(lines + ":" + statements));
+
+    StringBuilder sql = new StringBuilder("-- data\n");
+    for (int i = 1; i <= 7; i++) {
+      sql.append("insert into t values (").append(i).append(");\n");
+    }
+    runner.runScript(new StringReader(sql.toString()));
+
+    verify(stmt, times(7)).addBatch(anyString());
+    verify(stmt, times(3)).executeBatch();
+    verify(conn, times(3)).commit();
+    assertEquals(Arrays.asList("3:2", "5:4", "7:6", "8:7"), progress);
+  }
 }
@@ -0,0 +1,70 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class RowCountStatisticsTest {
+
+  @Test
+  void shouldSuggestNothingBeforeAnyExecution() {
+    assertNull(new RowCountStatistics().suggestFetchSize(10, 1000));
+  }
+
+  @Test
+  void shouldCoverTheNinetiethPercentileWithinBounds() {
+    RowCountStatistics statistics = new RowCountStatistics();
+    for (int i = 0; i < 95; i++) {
+      statistics.record(1);
+    }
+    for (int i = 0; i < 5; i++) {
+      statistics.record(100_000);
+    }
+    assertEquals(10, statistics.suggestFetchSize(10, 1000));
+    assertEquals(2, statistics.suggestFetchSize(1, 1000));
+
+    for (int i = 0; i < 100; i++) {
+      statistics.record(100_000);
+    }
+    assertEquals(1000, statistics.suggestFetchSize(10, 1000));
+  }
+
+  @Test
+  void shouldReadTheWholeResultInOneRoundTrip() {
+    RowCountStatistics statistics = new RowCountStatistics();
+    statistics.record(255);
+    assertEquals(256, statistics.suggestFetchSize(1, 1000));
+    statistics = new RowCountStatistics();
+    statistics.record(256);
+    assertEquals(512, statistics.suggestFetchSize(1, 1000));
+  }
+
+  @Test
+  void shouldFollowChangesInTheData() {
+    RowCountStatistics statistics = new RowCountStatistics();
+    for (int i = 0; i < 1000; i++) {
+      statistics.record(500);
+    }
+    for (int i = 0; i < 400; i++) {
+      statistics.record(3);
+    }
+    assertEquals(4, statistics.suggestFetchSize(1, 1000));
+    assertTrue(statistics.getSamples() <= 128);
+  }
+
+}
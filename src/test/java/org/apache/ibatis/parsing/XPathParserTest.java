@@ -16,19 +16,27 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
 
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
 class XPathParserTest {
@@ -211,6 +219,31 @@ class XPathParserTest {
     assertEquals("employee[${id_var}]_height", node.getValueBasedIdentifier());
   }
 
+  @Test
+  void shouldResolveElementPathsLikeXPath() throws Exception {
+    String xml = "<mapper><sql id='s1'/><select id='a'><include refid='s1'/></select><insert id='b'/>"
+        + "<select id='c'><selectKey id='k'/></select><update id='d'/><sql id='s2'/></mapper>";
+    XPathParser parser = new XPathParser(xml);
+    Document document = parser.evalNode("/mapper").getNode().getOwnerDocument();
+    XPath xpath = XPathFactory.newInstance().newXPath();
+    XNode select = parser.evalNode("/mapper/select");
+    for (String expression : new String[] { "/mapper", "/mapper/sql", "select|insert|update|delete", "sql|/mapper/insert",
+        "select/selectKey", "/mapper/missing", "selectKey", "include" }) {
+      for (Object root : new Object[] { document, document.getDocumentElement(), select.getNode() }) {
+        NodeList expected = (NodeList) xpath.evaluate(expression, root, XPathConstants.NODESET);
+        List<XNode> actual = parser.evalNodes(root, expression);
+        assertEquals(expected.getLength(), actual.size(), expression);
+        for (int i = 0; i < actual.size(); i++) {
+          assertSame(expected.item(i), actual.get(i).getNode(), expression);
+        }
+        XNode first = parser.evalNode(root, expression);
+        assertSame(expected.getLength() == 0 ? null : expected.item(0), first == null ? null : first.getNode());
+      }
+    }
+    assertEquals(Arrays.asList("a", "b", "c", "d"), parser.evalNode("/mapper")
+        .evalNodes("select|insert|update|delete").stream().map(n -> n.getStringAttribute("id")).collect(Collectors.toList()));
+  }
+
   @Test
   void formatXNodeToString() {
     XPathParser parser = new XPathParser("<users><user><id>100</id><name>Tom</name><age>30</age><cars><car index=\"1\">BMW</car><car index=\"2\">Audi</car><car index=\"3\">Benz</car></cars></user></users>");
@@ -38,6 +38,46 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void shouldReuseProxyClassAndNestPlugins() {
+    Map<String, String> map = new HashMap<>();
+    map.put("key", "value");
+    Object first = new AlwaysMapPlugin().plugin(map);
+    Object second = new AlwaysMapPlugin().plugin(new HashMap<>());
+    assertSame(first.getClass(), second.getClass());
+
+    Map<?, ?> nested = (Map<?, ?>) new CountingMapPlugin().plugin(first);
+    assertEquals("Always", nested.get("key"));
+    assertEquals(1, nested.size());
+    assertEquals(1, CountingMapPlugin.count);
+  }
+
+  @Test
+  void shouldNotWrapTargetWithoutInterceptedInterfaces() {
+    Object target = new Object();
+    assertSame(target, new AlwaysMapPlugin().plugin(target));
+  }
+
+  @Test
+  void shouldRequireInterceptsAnnotation() {
+    Interceptor interceptor = Invocation::proceed;
+    PluginException e = assertThrows(PluginException.class, () -> interceptor.plugin(new HashMap<>()));
+    assertTrue(e.getMessage().startsWith("No @Intercepts annotation was found in interceptor"));
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "size", args = {})})
+  public static class CountingMapPlugin implements Interceptor {
+    static int count;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count++;
+      return invocation.proceed();
+    }
+
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
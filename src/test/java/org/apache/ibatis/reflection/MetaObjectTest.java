@@ -28,6 +28,8 @@ import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.domain.misc.CustomBeanWrapper;
 import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
 import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.junit.jupiter.api.Test;
 
 class MetaObjectTest {
@@ -270,6 +272,67 @@ class MetaObjectTest {
     assertNotEquals(CustomBeanWrapper.class, meta.getObjectWrapper().getClass());
   }
 
+  @Test
+  void shouldGetAndSetNestedIndexedPaths() {
+    RichType element = new RichType();
+    RichType rich = new RichType();
+    rich.getRichList().add(element);
+    rich.getRichMap().put("key", element);
+    Map<String, Object> map = new HashMap<>();
+    map.put("rich", rich);
+    map.put("array", new RichType[] { element });
+    MetaObject meta = SystemMetaObject.forObject(map);
+
+    meta.setValue("rich.richList[1].richField", "foo");
+    assertEquals("foo", meta.getValue("rich.richList[1].richField"));
+    assertEquals("foo", meta.getValue("rich.richMap[key].richField"));
+    assertEquals("foo", meta.getValue("rich.richMap.key.richField"));
+    assertEquals("foo", meta.getValue("array[0].richField"));
+
+    meta.setValue("rich.richMap[key].richType.richProperty", "bar");
+    assertEquals("bar", element.getRichType().getRichProperty());
+    assertEquals("bar", meta.getValue("array[0].richType.richProperty"));
+    assertNull(meta.getValue("missing.richField"));
+  }
+
+  @Test
+  void shouldEvaluateSamePathAgainstDifferentClasses() {
+    Map<String, Object> map = new HashMap<>();
+    MetaObject meta = SystemMetaObject.forObject(map);
+
+    ExtendedRichType extended = new ExtendedRichType();
+    extended.setExtra("extra");
+    map.put("item", extended);
+    assertEquals("extra", meta.getValue("item.extra"));
+
+    map.put("item", new RichType());
+    ReflectionException e = assertThrows(ReflectionException.class, () -> meta.getValue("item.extra"));
+    assertTrue(e.getMessage().contains("There is no getter for property named 'extra'"));
+
+    map.put("item", extended);
+    meta.setValue("item.extra", "changed");
+    assertEquals("changed", extended.getExtra());
+  }
+
+  @Test
+  void shouldUseObjectWrapperFactoryForNestedPaths() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("author", new Author());
+    MetaObject meta = MetaObject.forObject(map, SystemMetaObject.DEFAULT_OBJECT_FACTORY, new CustomBeanWrapperFactory() {
+      @Override
+      public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+        return new CustomBeanWrapper(metaObject, object) {
+          @Override
+          public Object get(PropertyTokenizer prop) {
+            return "wrapped " + prop.getName();
+          }
+        };
+      }
+    }, new DefaultReflectorFactory());
+
+    assertEquals("wrapped username", meta.getValue("author.username"));
+  }
+
   @Test
   void shouldMethodHasGetterReturnTrueWhenListElementSet() {
     List<Object> param1 = new ArrayList<>();
@@ -292,4 +355,28 @@ class MetaObjectTest {
     assertTrue(meta.hasGetter("filterParams[2]"));
   }
 
+  @Test
+  void shouldEvictLeastRecentlyUsedPaths() {
+    PropertyPath path = PropertyPath.compile("richType.richField");
+    assertSame(path, PropertyPath.compile("richType.richField"));
+    for (int i = 0; i < 5000; i++) {
+      PropertyPath.compile("item_" + i + ".richField");
+    }
+    assertNotSame(path, PropertyPath.compile("richType.richField"));
+    PropertyPath recent = PropertyPath.compile("item_4999.richField");
+    assertSame(recent, PropertyPath.compile("item_4999.richField"));
+  }
+
+  static class ExtendedRichType extends RichType {
+    private String extra;
+
+    public String getExtra() {
+      return extra;
+    }
+
+    public void setExtra(String extra) {
+      this.extra = extra;
+    }
+  }
+
 }
@@ -61,6 +61,22 @@ class DefaultObjectFactoryTest {
     }
   }
 
+  @Test
+  void createClassWithCachedConstructors() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertNull(defaultObjectFactory.create(PrivateConstructors.class).value);
+      List<Class<?>> argTypes = new ArrayList<>();
+      argTypes.add(String.class);
+      PrivateConstructors created = defaultObjectFactory.create(PrivateConstructors.class, argTypes,
+          Collections.singletonList("foo" + i));
+      Assertions.assertEquals("foo" + i, created.value);
+      created = new DefaultObjectFactory().create(PrivateConstructors.class,
+          Arrays.asList(String.class, Integer.class), Arrays.asList("bar", i));
+      Assertions.assertEquals("bar" + i, created.value);
+    }
+  }
+
   @Test
   void createHashMap() {
      DefaultObjectFactory defaultObjectFactory=new DefaultObjectFactory();
@@ -94,4 +110,21 @@ class DefaultObjectFactoryTest {
     Set set = defaultObjectFactory.create(Set.class);
     Assertions.assertTrue(set instanceof HashSet, " set should be HashSet");
   }
+
+  static class PrivateConstructors {
+    private final String value;
+
+    private PrivateConstructors() {
+      this.value = null;
+    }
+
+    private PrivateConstructors(String value) {
+      this.value = value;
+    }
+
+    private PrivateConstructors(String value, Integer suffix) {
+      this.value = value + suffix;
+    }
+  }
+
 }
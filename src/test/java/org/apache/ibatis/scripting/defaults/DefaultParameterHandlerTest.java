@@ -15,10 +15,16 @@
  */
 package org.apache.ibatis.scripting.defaults;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.PreparedStatement;
@@ -27,9 +33,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.reflection.ReflectionException;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
@@ -70,6 +78,102 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void shouldBindBeanMapAndNestedProperties() throws SQLException {
+    Configuration config = new Configuration();
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", Integer.class).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "name", String.class).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "child.name", String.class).build());
+    MappedStatement mappedStatement = new MappedStatement.Builder(config, "insert",
+        new StaticSqlSource(config, "insert into item values (?, ?, ?)", parameterMappings), SqlCommandType.INSERT)
+            .build();
+
+    Item item = new Item(1, "parent", new Item(2, "child", null));
+    PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, item, mappedStatement.getBoundSql(item)).setParameters(ps);
+    verify(ps).setInt(1, 1);
+    verify(ps).setString(2, "parent");
+    verify(ps).setString(3, "child");
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("id", 3);
+    map.put("name", null);
+    map.put("child", new Item(4, "other", null));
+    ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, map, mappedStatement.getBoundSql(map)).setParameters(ps);
+    verify(ps).setInt(1, 3);
+    verify(ps).setNull(2, JdbcType.OTHER.TYPE_CODE);
+    verify(ps).setString(3, "other");
+
+    assertEquals(2, mappedStatement.getParameterBindingPlans().size());
+    ParameterBindingPlan plan = mappedStatement.getParameterBindingPlans().get(Item.class);
+    assertTrue(plan.isFor(parameterMappings));
+    assertTrue(plan.isMetaObjectRequired());
+    new DefaultParameterHandler(mappedStatement, item, mappedStatement.getBoundSql(item))
+        .setParameters(mock(PreparedStatement.class));
+    assertSame(plan, mappedStatement.getParameterBindingPlans().get(Item.class));
+  }
+
+  @Test
+  void shouldBindSimpleParameterAndAdditionalParameters() throws SQLException {
+    Configuration config = new Configuration();
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", Integer.class).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "extra", String.class).build());
+    MappedStatement mappedStatement = new MappedStatement.Builder(config, "select",
+        new StaticSqlSource(config, "select * from item where id = ? and name = ?", parameterMappings),
+        SqlCommandType.SELECT).build();
+
+    BoundSql boundSql = mappedStatement.getBoundSql(5);
+    boundSql.setAdditionalParameter("extra", "x");
+    PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, 5, boundSql).setParameters(ps);
+    verify(ps).setInt(1, 5);
+    verify(ps).setString(2, "x");
+    assertFalse(mappedStatement.getParameterBindingPlans().get(Integer.class).isMetaObjectRequired());
+  }
+
+  @Test
+  void shouldReportMissingGetterLikeMetaObject() {
+    Configuration config = new Configuration();
+    List<ParameterMapping> parameterMappings = Collections
+        .singletonList(new ParameterMapping.Builder(config, "missing", String.class).build());
+    MappedStatement mappedStatement = new MappedStatement.Builder(config, "select",
+        new StaticSqlSource(config, "select ?", parameterMappings), SqlCommandType.SELECT).build();
+    Item item = new Item(1, "a", null);
+    DefaultParameterHandler handler = new DefaultParameterHandler(mappedStatement, item,
+        mappedStatement.getBoundSql(item));
+    ReflectionException e = assertThrows(ReflectionException.class,
+        () -> handler.setParameters(mock(PreparedStatement.class)));
+    assertTrue(e.getMessage().contains("There is no getter for property named 'missing'"));
+  }
+
+  static class Item {
+
+    private final Integer id;
+    private final String name;
+    private final Item child;
+
+    Item(Integer id, String name, Item child) {
+      this.id = id;
+      this.name = name;
+      this.child = child;
+    }
+
+    public Integer getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Item getChild() {
+      return child;
+    }
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,101 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.junit.jupiter.api.Test;
+
+class CompactMetadataTest {
+
+  private static final String MAPPER_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"https://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+      + "<mapper namespace=\"xml\">\n"
+      + "  <sql id=\"columns\">id, name</sql>\n"
+      + "  <resultMap id=\"item\" type=\"map\">\n"
+      + "    <id property=\"id\" column=\"id\"/>\n"
+      + "    <result property=\"name\" column=\"name\"/>\n"
+      + "  </resultMap>\n"
+      + "  <select id=\"first\" resultMap=\"item\">select <include refid=\"columns\"/> from item where id = #{id}</select>\n"
+      + "  <select id=\"second\" resultMap=\"item\">select <include refid=\"columns\"/> from item where id = #{id}</select>\n"
+      + "</mapper>\n";
+
+  @Test
+  void shouldShareStaticSqlSourcesAndReleaseFragments() {
+    Configuration configuration = new Configuration();
+    configuration.setCompactMetadata(true);
+    configuration.addMapper(Mapper.class);
+    new XMLMapperBuilder(new StringReader(MAPPER_XML), configuration, "xml", configuration.getSqlFragments()).parse();
+
+    assertSame(boundSql(configuration, "xml.first").getParameterMappings(),
+        boundSql(configuration, "xml.second").getParameterMappings());
+    String mapperNamespace = Mapper.class.getName();
+    assertSame(boundSql(configuration, mapperNamespace + ".byId").getParameterMappings(),
+        boundSql(configuration, mapperNamespace + ".sameById").getParameterMappings());
+    assertNotSame(boundSql(configuration, mapperNamespace + ".byId").getParameterMappings(),
+        boundSql(configuration, mapperNamespace + ".byName").getParameterMappings());
+    assertEquals(1, configuration.getFootprint().getNamespaces().get("xml").getSqlFragments());
+
+    new SqlSessionFactoryBuilder().build(configuration);
+
+    assertTrue(configuration.getSqlFragments().isEmpty());
+    ConfigurationFootprint.Namespace xml = configuration.getFootprint().getNamespaces().get("xml");
+    assertEquals(2, xml.getMappedStatements());
+    assertEquals(1, xml.getResultMaps());
+    assertEquals(2, xml.getResultMappings());
+    assertEquals(0, xml.getSqlFragments());
+    assertEquals(3, configuration.getFootprint().getNamespaces().get(mapperNamespace).getMappedStatements());
+    assertEquals("xml.first", configuration.getMappedStatement("first").getId());
+  }
+
+  @Test
+  void shouldKeepSqlSourcesAndFragmentsByDefault() {
+    Configuration configuration = new Configuration();
+    new XMLMapperBuilder(new StringReader(MAPPER_XML), configuration, "xml", configuration.getSqlFragments()).parse();
+    new SqlSessionFactoryBuilder().build(configuration);
+
+    assertNotSame(boundSql(configuration, "xml.first").getParameterMappings(),
+        boundSql(configuration, "xml.second").getParameterMappings());
+    assertEquals(1, configuration.getSqlFragments().values().stream().distinct().count());
+    ConfigurationFootprint footprint = configuration.getFootprint();
+    assertEquals(1, footprint.getNamespaces().get("xml").getSqlFragments());
+    // first, second, item and columns
+    assertEquals(4, footprint.getShortNameEntries());
+  }
+
+  private static BoundSql boundSql(Configuration configuration, String statementId) {
+    return configuration.getMappedStatement(statementId).getBoundSql(1);
+  }
+
+  interface Mapper {
+
+    @Select("select id, name from item where id = #{id}")
+    Object byId(int id);
+
+    @Select("select id, name from item where id = #{id}")
+    Object sameById(int id);
+
+    @Select("select id, name from item where name = #{name}")
+    Object byName(String name);
+
+  }
+
+}
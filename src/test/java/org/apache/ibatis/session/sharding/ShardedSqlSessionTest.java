@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.jdbc.SqlRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ShardedSqlSessionTest {
+
+  private static final String SELECT_ALL = Mapper.class.getName() + ".selectAll";
+
+  private static ExecutorService executorService;
+  private static List<Environment> shards;
+  private static Configuration configuration;
+
+  @BeforeAll
+  static void setUp() throws IOException, SQLException {
+    executorService = Executors.newFixedThreadPool(2);
+    shards = new ArrayList<>();
+    shards.add(createShard("shard0", 1, 4, 7));
+    shards.add(createShard("shard1", 2, 5, 8));
+    shards.add(createShard("shard2", 3, 6, 9));
+    configuration = new Configuration(shards.get(0));
+    configuration.addMapper(Mapper.class);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void shouldConcatenateShardResults() {
+    ShardedSqlSession session = new ShardedSqlSession(configuration, shards, executorService);
+    List<Integer> ids = session.selectList(SELECT_ALL);
+    assertEquals(Arrays.asList(1, 4, 7, 2, 5, 8, 3, 6, 9), ids);
+  }
+
+  @Test
+  void shouldMergeOrderedShardResults() {
+    ShardedSqlSession session = new ShardedSqlSession(configuration, shards, executorService);
+    List<Integer> ids = session.selectList(SELECT_ALL, null, ShardMerger.orderBy(Integer::compare));
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), ids);
+  }
+
+  @Test
+  void shouldApplyRowBoundsToMergedResults() {
+    ShardedSqlSession session = new ShardedSqlSession(configuration, shards, executorService);
+    List<Integer> ids = session.selectList(SELECT_ALL, null, new RowBounds(2, 3),
+        ShardMerger.<Integer, Integer> orderBy(id -> id));
+    assertEquals(Arrays.asList(3, 4, 5), ids);
+  }
+
+  @Test
+  void shouldPropagateShardFailure() throws SQLException {
+    List<Environment> withBrokenShard = new ArrayList<>(shards);
+    withBrokenShard.add(new Environment("broken", new JdbcTransactionFactory(),
+        new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:shard_missing;ifexists=true", "sa", "")));
+    ShardedSqlSession session = new ShardedSqlSession(configuration, withBrokenShard, executorService);
+    PersistenceException e = assertThrows(PersistenceException.class, () -> session.selectList(SELECT_ALL));
+    assertTrue(e.getMessage().contains("broken"));
+  }
+
+  @Test
+  void shouldTimeOutOnSlowShard() {
+    List<Environment> withSlowShard = new ArrayList<>(shards);
+    withSlowShard.add(new Environment("slow", new JdbcTransactionFactory(),
+        new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:shard0", "sa", "") {
+          @Override
+          public Connection getConnection() throws SQLException {
+            try {
+              Thread.sleep(5000);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return super.getConnection();
+          }
+        }));
+    ShardedSqlSession session = new ShardedSqlSession(configuration, withSlowShard, executorService);
+    session.setTimeout(200, TimeUnit.MILLISECONDS);
+    PersistenceException e = assertThrows(PersistenceException.class, () -> session.selectList(SELECT_ALL));
+    assertTrue(e.getMessage().contains("Timed out"));
+  }
+
+  private static Environment createShard(String name, int... ids) throws IOException, SQLException {
+    DataSource ds = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:" + name, "sa", "");
+    BaseDataTest.runScript(ds, "org/apache/ibatis/session/sharding/CreateDB.sql");
+    try (Connection conn = ds.getConnection()) {
+      SqlRunner runner = new SqlRunner(conn);
+      for (int id : ids) {
+        runner.insert("insert into item (id) values (?)", id);
+      }
+    }
+    return new Environment(name, new JdbcTransactionFactory(), ds);
+  }
+
+  interface Mapper {
+
+    @Select("select id from item order by id")
+    List<Integer> selectAll();
+
+  }
+
+}
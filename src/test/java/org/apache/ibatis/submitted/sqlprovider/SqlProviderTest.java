@@ -17,7 +17,9 @@ package org.apache.ibatis.submitted.sqlprovider;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -40,6 +42,7 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 import org.apache.ibatis.builder.annotation.ProviderSqlSource;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -299,6 +302,49 @@ class SqlProviderTest {
     }
   }
 
+  @Test
+  void shouldReuseSqlSourceOfSameProviderSql() throws NoSuchMethodException {
+    Configuration configuration = new Configuration();
+    configuration.setProviderSqlCacheSize(1);
+    Method mapperMethod = CachedSqlMapper.class.getMethod("selectBy", String.class, Object.class);
+    ProviderSqlSource sqlSource = new ProviderSqlSource(configuration,
+        mapperMethod.getAnnotation(SelectProvider.class), CachedSqlMapper.class, mapperMethod);
+
+    BoundSql byId = sqlSource.getBoundSql(byColumn("id", 1));
+    assertEquals("select * from users where id = ?", byId.getSql());
+    BoundSql byOtherId = sqlSource.getBoundSql(byColumn("id", 2));
+    assertSame(byId.getParameterMappings(), byOtherId.getParameterMappings());
+    assertEquals(2, ((Map<?, ?>) byOtherId.getParameterObject()).get("value"));
+
+    BoundSql byName = sqlSource.getBoundSql(byColumn("name", "User1"));
+    assertEquals("select * from users where name = ?", byName.getSql());
+    assertNotSame(byId.getParameterMappings(), byName.getParameterMappings());
+    // the cache holds a single SQL, so the first one has been evicted
+    assertNotSame(byId.getParameterMappings(), sqlSource.getBoundSql(byColumn("id", 1)).getParameterMappings());
+
+    configuration.setProviderSqlCacheSize(0);
+    assertNotSame(sqlSource.getBoundSql(byColumn("id", 1)).getParameterMappings(),
+        sqlSource.getBoundSql(byColumn("id", 1)).getParameterMappings());
+  }
+
+  private static Map<String, Object> byColumn(String column, Object value) {
+    Map<String, Object> params = new MapperMethod.ParamMap<>();
+    params.put("column", column);
+    params.put("value", value);
+    return params;
+  }
+
+  interface CachedSqlMapper {
+    @SelectProvider(type = CachedSqlBuilder.class, method = "selectBy")
+    List<User> selectBy(@Param("column") String column, @Param("value") Object value);
+  }
+
+  public static class CachedSqlBuilder {
+    public static String selectBy(@Param("column") String column) {
+      return "select * from users where " + column + " = #{value}";
+    }
+  }
+
   @Test
   @SuppressWarnings("deprecation")
   void notSqlProvider() throws NoSuchMethodException {
@@ -0,0 +1,171 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.transaction.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.jdbc.SqlRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReadWriteTransactionTest {
+
+  private DataSource primary;
+  private DataSource replica1;
+  private DataSource replica2;
+
+  @BeforeEach
+  void setUp() throws IOException, SQLException {
+    primary = createDatabase("primary");
+    replica1 = createDatabase("replica1");
+    replica2 = createDatabase("replica2");
+  }
+
+  @Test
+  void shouldBalanceReadsAcrossReplicas() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), Arrays.asList(replica1, replica2)));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("replica1", sqlSession.getMapper(Mapper.class).node());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("replica2", sqlSession.getMapper(Mapper.class).node());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("replica1", sqlSession.getMapper(Mapper.class).node());
+    }
+  }
+
+  @Test
+  void shouldStickToPrimaryAfterWriteUntilCommit() throws SQLException {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), Arrays.asList(replica1)));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("replica1", mapper.node());
+      assertEquals(1, mapper.insertItem(1));
+      assertEquals("primary", mapper.node());
+      assertEquals(1, mapper.countItems());
+      sqlSession.commit();
+      assertEquals("replica1", mapper.node());
+      assertEquals(0, mapper.countItems());
+    }
+    assertEquals(1, countItems(primary));
+    assertEquals(0, countItems(replica1));
+  }
+
+  @Test
+  void shouldNotReuseReplicaStatementAfterWrite() throws SQLException {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), Arrays.asList(replica1)));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.REUSE)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(0, mapper.countItems());
+      assertEquals(1, mapper.insertItem(1));
+      assertEquals(1, mapper.countItems());
+      sqlSession.commit();
+      assertEquals(0, mapper.countItems());
+    }
+    assertEquals(1, countItems(primary));
+  }
+
+  @Test
+  void shouldSendSelectAffectingDataToPrimary() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), Arrays.asList(replica1)));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("primary", mapper.nodeAffectingData());
+      assertEquals("primary", mapper.node());
+    }
+  }
+
+  @Test
+  void shouldFallBackToPrimaryWhenReplicaIsDown() {
+    DataSource broken = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:rw_missing;ifexists=true",
+        "sa", "");
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), Arrays.asList(broken)));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("primary", sqlSession.getMapper(Mapper.class).node());
+    }
+  }
+
+  @Test
+  void shouldUsePrimaryOnlyWithoutReplicas() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReadWriteTransactionFactory(
+        new JdbcTransactionFactory(), null));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("primary", sqlSession.getMapper(Mapper.class).node());
+    }
+  }
+
+  private SqlSessionFactory createSqlSessionFactory(ReadWriteTransactionFactory transactionFactory) {
+    Configuration configuration = new Configuration(new Environment("rw", transactionFactory, primary));
+    configuration.addMapper(Mapper.class);
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  private static DataSource createDatabase(String name) throws IOException, SQLException {
+    DataSource ds = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:rw_" + name, "sa", "");
+    BaseDataTest.runScript(ds, "org/apache/ibatis/transaction/routing/CreateDB.sql");
+    try (Connection conn = ds.getConnection()) {
+      new SqlRunner(conn).insert("insert into node (name) values (?)", name);
+    }
+    return ds;
+  }
+
+  private static int countItems(DataSource ds) throws SQLException {
+    try (Connection conn = ds.getConnection()) {
+      return ((Number) new SqlRunner(conn).selectOne("select count(*) c from item").get("C")).intValue();
+    }
+  }
+
+  interface Mapper {
+
+    @Select("select name from node")
+    String node();
+
+    @Select(value = "select name from node", affectData = true)
+    String nodeAffectingData();
+
+    @Select("select count(*) from item")
+    int countItems();
+
+    @Insert("insert into item (id) values (#{id})")
+    int insertItem(int id);
+
+  }
+
+}
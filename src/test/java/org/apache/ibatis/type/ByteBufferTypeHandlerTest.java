@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ByteBufferTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<ByteBuffer> TYPE_HANDLER = new ByteBufferTypeHandler();
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4 });
+    buffer.position(1);
+    TYPE_HANDLER.setParameter(ps, 1, buffer, null);
+    ArgumentCaptor<InputStream> stream = ArgumentCaptor.forClass(InputStream.class);
+    verify(ps).setBinaryStream(eq(1), stream.capture(), eq(4));
+    byte[] bytes = new byte[5];
+    assertEquals(4, stream.getValue().read(bytes));
+    assertArrayEquals(new byte[] { 1, 2, 3, 4, 0 }, bytes);
+    assertEquals(-1, stream.getValue().read());
+    assertEquals(1, buffer.position());
+  }
+
+  @Test
+  void shouldSetDirectBufferParameter() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+    buffer.put(new byte[] { 1, 2, 3 }).flip();
+    TYPE_HANDLER.setParameter(ps, 1, buffer, null);
+    ArgumentCaptor<InputStream> stream = ArgumentCaptor.forClass(InputStream.class);
+    verify(ps).setBinaryStream(eq(1), stream.capture(), eq(3));
+    assertEquals(1, stream.getValue().read());
+    assertEquals(2, stream.getValue().read());
+    assertEquals(3, stream.getValue().read());
+    assertEquals(-1, stream.getValue().read());
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getBytes("column")).thenReturn(new byte[] { 1, 2, 3 });
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), TYPE_HANDLER.getResult(rs, "column"));
+    verify(rs, never()).wasNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getBytes("column")).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getBytes(1)).thenReturn(new byte[] { 1, 2, 3 });
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), TYPE_HANDLER.getResult(rs, 1));
+    verify(rs, never()).wasNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getBytes(1)).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(rs, 1));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getBytes(1)).thenReturn(new byte[] { 1, 2, 3 });
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), TYPE_HANDLER.getResult(cs, 1));
+    verify(cs, never()).wasNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getBytes(1)).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  void shouldBeResolvedForHeapAndDirectBuffersOnceRegistered() {
+    TypeHandlerRegistry registry = new TypeHandlerRegistry();
+    assertFalse(registry.hasTypeHandler(ByteBuffer.class));
+    registry.register(ByteBuffer.class, new ByteBufferTypeHandler());
+    assertTrue(registry.getTypeHandler(ByteBuffer.wrap(new byte[0]).getClass()) instanceof ByteBufferTypeHandler);
+    assertTrue(registry.getTypeHandler(ByteBuffer.allocateDirect(1).getClass()) instanceof ByteBufferTypeHandler);
+  }
+
+}
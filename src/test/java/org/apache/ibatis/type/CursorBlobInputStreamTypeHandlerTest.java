@@ -0,0 +1,156 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CursorBlobInputStreamTypeHandler} and {@link CursorClobReaderTypeHandler}.
+ */
+class CursorBlobInputStreamTypeHandlerTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // Derby cannot tell the row of a forward only result set, HSQLDB can
+    DataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cursor_lob", "sa", "");
+    Configuration configuration = new Configuration(
+        new Environment("Production", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/type/CursorBlobInputStreamTypeHandlerTest.sql");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insert(i, new ByteArrayInputStream(("content" + i).getBytes(StandardCharsets.UTF_8)),
+            new StringReader("text" + i));
+      }
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldReadValuesOfTheCurrentRow() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+        Cursor<Document> documents = sqlSession.getMapper(Mapper.class).documents()) {
+      int id = 0;
+      for (Document document : documents) {
+        id++;
+        try (InputStream content = document.content; Reader text = document.text) {
+          assertEquals("content" + id, new String(readAll(content), StandardCharsets.UTF_8));
+          assertEquals("text" + id, readAll(text));
+        }
+      }
+      assertEquals(3, id);
+    }
+  }
+
+  @Test
+  void shouldFailToReadOnceTheCursorHasMovedOn() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+        Cursor<Document> documents = sqlSession.getMapper(Mapper.class).documents()) {
+      Iterator<Document> iterator = documents.iterator();
+      Document first = iterator.next();
+      assertEquals('c', first.content.read());
+      iterator.next();
+      assertThrows(IOException.class, () -> first.content.read());
+      assertThrows(IOException.class, () -> first.text.read());
+      first.content.close();
+      first.text.close();
+    }
+  }
+
+  @Test
+  void shouldReadWhenDriverDoesNotReportRowNumbers() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    Blob blob = mock(Blob.class);
+    when(rs.getBlob("content")).thenReturn(blob);
+    when(rs.getRow()).thenThrow(new SQLException("Only allowed on scroll cursors"));
+    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(new byte[] { 1 }));
+    try (InputStream content = new CursorBlobInputStreamTypeHandler().getResult(rs, "content")) {
+      assertEquals(1, content.read());
+    }
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    byte[] buffer = new byte[64];
+    int length = 0;
+    for (int n; (n = in.read(buffer, length, buffer.length - length)) > 0;) {
+      length += n;
+    }
+    byte[] bytes = new byte[length];
+    System.arraycopy(buffer, 0, bytes, 0, length);
+    return bytes;
+  }
+
+  private static String readAll(Reader reader) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    char[] buffer = new char[64];
+    for (int n; (n = reader.read(buffer)) > 0;) {
+      sb.append(buffer, 0, n);
+    }
+    return sb.toString();
+  }
+
+  static class Document {
+    private InputStream content;
+    private Reader text;
+  }
+
+  interface Mapper {
+
+    @Insert("insert into document (id, content, text) values (#{id}, #{content}, #{text})")
+    void insert(@Param("id") int id, @Param("content") InputStream content, @Param("text") Reader text);
+
+    @Select("select content, text from document order by id")
+    @Result(property = "content", column = "content", typeHandler = CursorBlobInputStreamTypeHandler.class)
+    @Result(property = "text", column = "text", typeHandler = CursorClobReaderTypeHandler.class)
+    Cursor<Document> documents();
+
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Blob;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+class PathTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<Path> TYPE_HANDLER = new PathTypeHandler();
+
+  @Mock
+  protected Blob blob;
+
+  @TempDir
+  Path tempDir;
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    Path file = Files.write(tempDir.resolve("in.bin"), new byte[] { 1, 2, 3 });
+    TYPE_HANDLER.setParameter(ps, 1, file, null);
+    ArgumentCaptor<InputStream> stream = ArgumentCaptor.forClass(InputStream.class);
+    verify(ps).setBinaryStream(eq(1), stream.capture(), eq(3L));
+    try (InputStream in = stream.getValue()) {
+      assertEquals(1, in.read());
+    }
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+    assertSpilled(TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+    assertSpilled(TYPE_HANDLER.getResult(rs, 1));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getBinaryStream(1)).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(rs, 1));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+    assertSpilled(TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(null);
+    assertNull(TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  void shouldNotLeakFileHandlesWhenBoundRepeatedly() throws Exception {
+    Path fds = Paths.get("/proc/self/fd");
+    assumeTrue(Files.isDirectory(fds));
+    Path file = Files.write(tempDir.resolve("in.bin"), new byte[] { 1, 2, 3 });
+    ArgumentCaptor<InputStream> stream = ArgumentCaptor.forClass(InputStream.class);
+    long before = countFiles(fds);
+    for (int i = 0; i < 500; i++) {
+      TYPE_HANDLER.setParameter(ps, 1, file, null);
+    }
+    verify(ps, times(500)).setBinaryStream(eq(1), stream.capture(), eq(3L));
+    assertTrue(countFiles(fds) - before < 50);
+    byte[] buffer = new byte[3];
+    for (InputStream in : stream.getAllValues()) {
+      assertEquals(3, in.read(buffer));
+    }
+    assertArrayEquals(new byte[] { 1, 2, 3 }, buffer);
+    assertTrue(countFiles(fds) - before < 50);
+  }
+
+  @Test
+  void shouldNotBeRegisteredByDefault() {
+    TypeHandlerRegistry registry = new TypeHandlerRegistry();
+    assertFalse(registry.hasTypeHandler(Path.class));
+    registry.register(Path.class, new PathTypeHandler());
+    assertTrue(registry.getTypeHandler(Path.class) instanceof PathTypeHandler);
+  }
+
+  private static long countFiles(Path dir) throws Exception {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.count();
+    }
+  }
+
+  private static void assertSpilled(Path file) throws Exception {
+    try {
+      assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+}